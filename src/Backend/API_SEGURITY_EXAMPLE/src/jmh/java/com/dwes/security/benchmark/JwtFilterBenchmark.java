@@ -0,0 +1,119 @@
+package com.dwes.security.benchmark;
+
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.dwes.security.config.JwtAuthenticationFilter;
+import com.dwes.security.entities.Role;
+import com.dwes.security.entities.Usuario;
+import com.dwes.security.repository.RevokedTokenRepository;
+import com.dwes.security.repository.UserRepository;
+import com.dwes.security.service.user.impl.JwtServiceImpl;
+import com.dwes.security.service.user.impl.TokenRevocationServiceImpl;
+import com.dwes.security.service.user.impl.UserServiceImpl;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+
+/**
+ * Coste completo de JwtAuthenticationFilter por petición, con un FilterChain vacío.
+ *
+ * - conToken: verificación del token, consulta de revocación y construcción del
+ *   Authentication. Con stateless=false el usuario sale de la caché de UserServiceImpl
+ *   (caliente; el repositorio es un mock que sólo se consulta la primera vez).
+ * - sinCabecera: referencia de una petición anónima.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtFilterBenchmark {
+
+    @Param({ "false", "true" })
+    public boolean stateless;
+
+    private JwtAuthenticationFilter filter;
+    private String authorization;
+
+    // Equivalente a un FilterChain mockeado: no hace nada
+    private final FilterChain chain = (request, response) -> { };
+
+    @Setup
+    public void setUp() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+        JwtServiceImpl jwtService = new JwtServiceImpl();
+        ReflectionTestUtils.setField(jwtService, "jwtExpiration", 36000000L);
+        jwtService.reloadSigningKey(JwtVerificationBenchmark.SECRET);
+
+        Usuario usuario = new Usuario();
+        ReflectionTestUtils.setField(usuario, "id", 1);
+        usuario.setEmail("alice.johnson@example.com");
+        usuario.setRoles(Set.of(Role.ROLE_USER));
+        authorization = "Bearer " + jwtService.generateToken(usuario);
+
+        UserRepository userRepository = mock(UserRepository.class);
+        when(userRepository.findByEmail(anyString())).thenReturn(Optional.of(usuario));
+        UserServiceImpl userService = new UserServiceImpl(Duration.ofMinutes(5), 10000, registry);
+        ReflectionTestUtils.setField(userService, "userRepository", userRepository);
+
+        TokenRevocationServiceImpl revocationService = new TokenRevocationServiceImpl(
+                mock(RevokedTokenRepository.class), 100000, 0.01, registry);
+
+        filter = new JwtAuthenticationFilter();
+        ReflectionTestUtils.setField(filter, "jwtService", jwtService);
+        ReflectionTestUtils.setField(filter, "userService", userService);
+        ReflectionTestUtils.setField(filter, "revocationService", revocationService);
+        ReflectionTestUtils.setField(filter, "statelessEnabled", stateless);
+        ReflectionTestUtils.setField(filter, "recheckPaths", List.of("/api/v1/users/**"));
+    }
+
+    @Benchmark
+    public Authentication conToken() throws ServletException, IOException {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/libros");
+        request.addHeader("Authorization", authorization);
+        return filtrar(request);
+    }
+
+    @Benchmark
+    public Authentication sinCabecera() throws ServletException, IOException {
+        return filtrar(new MockHttpServletRequest("GET", "/api/v1/libros"));
+    }
+
+    private Authentication filtrar(MockHttpServletRequest request) throws ServletException, IOException {
+        try {
+            filter.doFilter(request, new MockHttpServletResponse(), chain);
+            return SecurityContextHolder.getContext().getAuthentication();
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+}
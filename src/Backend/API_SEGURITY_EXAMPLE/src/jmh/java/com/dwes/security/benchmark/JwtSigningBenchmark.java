@@ -0,0 +1,89 @@
+package com.dwes.security.benchmark;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+import javax.crypto.SecretKey;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.dwes.security.entities.Usuario;
+import com.dwes.security.service.user.impl.JwtServiceImpl;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+
+/**
+ * Throughput de firma y verificación:
+ * - antes*: llave y JwtParser reconstruidos en cada operación (implementación anterior).
+ * - despues*: JwtServiceImpl con llave y parser precalculados.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtSigningBenchmark {
+
+    private JwtServiceImpl jwtService;
+    private Usuario usuario;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtService = new JwtServiceImpl();
+        ReflectionTestUtils.setField(jwtService, "jwtExpiration", 36000000L);
+        jwtService.reloadSigningKey(JwtVerificationBenchmark.SECRET);
+
+        usuario = new Usuario();
+        usuario.setEmail("alice.johnson@example.com");
+        token = jwtService.generateToken(usuario);
+    }
+
+    @Benchmark
+    public String antesFirmar() {
+        long ahora = System.currentTimeMillis();
+        return Jwts.builder()
+                .subject(usuario.getUsername())
+                .issuedAt(new Date(ahora))
+                .expiration(new Date(ahora + 36000000L))
+                .signWith(llaveDesdeSecreto(), Jwts.SIG.HS256)
+                .compact();
+    }
+
+    @Benchmark
+    public String despuesFirmar() {
+        return jwtService.generateToken(usuario);
+    }
+
+    @Benchmark
+    public Claims antesVerificar() {
+        return Jwts.parser()
+                .verifyWith(llaveDesdeSecreto())
+                .build()
+                .parseSignedClaims(token)
+                .getPayload();
+    }
+
+    @Benchmark
+    public String despuesVerificar() {
+        return jwtService.verifyToken(token).getSubject();
+    }
+
+    private static SecretKey llaveDesdeSecreto() {
+        return Keys.hmacShaKeyFor(Decoders.BASE64URL.decode(JwtVerificationBenchmark.SECRET));
+    }
+}
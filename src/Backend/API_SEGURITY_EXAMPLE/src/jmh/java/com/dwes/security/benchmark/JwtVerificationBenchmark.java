@@ -0,0 +1,87 @@
+package com.dwes.security.benchmark;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.dwes.security.entities.Role;
+import com.dwes.security.entities.Usuario;
+import com.dwes.security.service.user.VerifiedClaims;
+import com.dwes.security.service.user.impl.JwtServiceImpl;
+import com.dwes.security.service.user.impl.VerifiedTokenCache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Coste de verificar el token por petición en el filtro JWT.
+ *
+ * - tresParseos: lo que hacía el filtro antes (extractUserName + isTokenValid,
+ *   que a su vez parseaba el token otras dos veces).
+ * - unParseo: verifyToken una sola vez.
+ * - conCache: verifyToken con la caché de tokens verificados activa (solo SHA-256).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtVerificationBenchmark {
+
+    static final String SECRET = "DaYZnjYsiC-sm09XbDIln3U-Av1G2a3cQUfWzoSLmbY";
+
+    private JwtServiceImpl jwtService;
+    private JwtServiceImpl jwtServiceConCache;
+    private Usuario usuario;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtService = new JwtServiceImpl();
+        ReflectionTestUtils.setField(jwtService, "jwtExpiration", 36000000L);
+        jwtService.reloadSigningKey(SECRET);
+
+        usuario = new Usuario();
+        usuario.setEmail("alice.johnson@example.com");
+        usuario.setRoles(Set.of(Role.ROLE_USER));
+        token = jwtService.generateToken(usuario);
+
+        jwtServiceConCache = new JwtServiceImpl();
+        ReflectionTestUtils.setField(jwtServiceConCache, "jwtExpiration", 36000000L);
+        ReflectionTestUtils.setField(jwtServiceConCache, "tokenCache",
+                new VerifiedTokenCache(true, 10000, new SimpleMeterRegistry()));
+        jwtServiceConCache.reloadSigningKey(SECRET);
+    }
+
+    @Benchmark
+    public boolean tresParseos() {
+        // filtro: extractUserName; isTokenValid: extractUserName + extractExpiration
+        String email = jwtService.extractUserName(token);
+        String userName = jwtService.extractUserName(token);
+        boolean expirado = jwtService.verifyToken(token).isExpired();
+        return email != null && userName.equals(usuario.getUsername()) && !expirado;
+    }
+
+    @Benchmark
+    public boolean unParseo() {
+        VerifiedClaims claims = jwtService.verifyToken(token);
+        return claims.getSubject().equals(usuario.getUsername());
+    }
+
+    @Benchmark
+    public boolean conCache() {
+        VerifiedClaims claims = jwtServiceConCache.verifyToken(token);
+        return claims.getSubject().equals(usuario.getUsername());
+    }
+}
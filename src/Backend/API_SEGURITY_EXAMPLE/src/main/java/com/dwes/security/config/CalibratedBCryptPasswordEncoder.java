@@ -0,0 +1,79 @@
+package com.dwes.security.config;
+
+import java.time.Duration;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+/**
+ * BCryptPasswordEncoder con un coste fijo conocido (calibrado o configurado).
+ *
+ * upgradeEncoding devuelve true sólo si el coste del hash guardado es menor que el
+ * actual: DaoAuthenticationProvider lo rehashea en el siguiente signin correcto. Un hash
+ * de coste mayor se conserva; si no, nodos calibrados a costes distintos se pasarían
+ * la contraseña de uno a otro rehasheándola en cada signin.
+ */
+public class CalibratedBCryptPasswordEncoder extends BCryptPasswordEncoder {
+
+    private static final Logger log = LoggerFactory.getLogger(CalibratedBCryptPasswordEncoder.class);
+
+    // $2a$10$... / $2b$12$... / $2y$..
+    private static final Pattern COSTE = Pattern.compile("^\\$2[aby]?\\$(\\d\\d)\\$");
+
+    private static final int MIN_STRENGTH = 4;
+    private static final int MAX_STRENGTH = 31;
+
+    private final int strength;
+
+    public CalibratedBCryptPasswordEncoder(int strength) {
+        super(strength);
+        this.strength = strength;
+    }
+
+    public int getStrength() {
+        return strength;
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        if (encodedPassword == null) {
+            return false;
+        }
+        Matcher m = COSTE.matcher(encodedPassword);
+        return m.find() && Integer.parseInt(m.group(1)) < strength;
+    }
+
+    /**
+     * Mide el tiempo de hash en esta máquina desde minStrength hacia arriba y devuelve
+     * el mayor coste cuyo tiempo no supera 'objetivo' (como mínimo minStrength).
+     * Cada punto de coste duplica el tiempo, así que la calibración completa tarda
+     * aproximadamente el doble del objetivo.
+     */
+    public static int calibrate(Duration objetivo, int minStrength, int maxStrength) {
+        int min = Math.max(MIN_STRENGTH, minStrength);
+        int max = Math.min(MAX_STRENGTH, maxStrength);
+        long objetivoNanos = objetivo.toNanos();
+        int elegido = min;
+        for (int coste = min; coste <= max; coste++) {
+            long nanos = medir(coste);
+            log.info("Calibración BCrypt: coste {} -> {} ms", coste, nanos / 1_000_000);
+            if (nanos > objetivoNanos) {
+                break;
+            }
+            elegido = coste;
+        }
+        log.info("Coste BCrypt elegido: {} (objetivo {} ms)", elegido, objetivo.toMillis());
+        return elegido;
+    }
+
+    private static long medir(int coste) {
+        BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(coste);
+        encoder.encode("calentamiento");
+        long inicio = System.nanoTime();
+        encoder.encode("calibracion-bcrypt");
+        return System.nanoTime() - inicio;
+    }
+}
@@ -0,0 +1,87 @@
+package com.dwes.security.config;
+
+import java.time.Duration;
+import java.util.OptionalLong;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.dwes.security.entities.Comida;
+import com.dwes.security.entities.Libro;
+import com.dwes.security.service.cache.CachePorId;
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.JCacheMetrics;
+
+/**
+ * Caché de lecturas por id de libros y comidas (catalogo.cache.backend):
+ *
+ *  - caffeine  (por defecto): caché en el servicio, CachePorId sobre Caffeine.
+ *  - hibernate: caché de 2º nivel de Hibernate (JCache sobre Caffeine) para Libro y Comida;
+ *               los servicios no cachean y findById la aprovecha.
+ *  - none:      sin caché.
+ *
+ * En los dos primeros el tamaño y el TTL salen de catalogo.cache.max-size y catalogo.cache.ttl.
+ */
+@Configuration
+public class CatalogoCacheConfiguration {
+
+    @Value("${catalogo.cache.backend:caffeine}")
+    private String backend;
+
+    @Value("${catalogo.cache.max-size:10000}")
+    private long maxSize;
+
+    @Value("${catalogo.cache.ttl:PT10M}")
+    private Duration ttl;
+
+    @Bean
+    public CachePorId<Libro> libroCache(MeterRegistry meterRegistry) {
+        return crear("libros", meterRegistry);
+    }
+
+    @Bean
+    public CachePorId<Comida> comidaCache(MeterRegistry meterRegistry) {
+        return crear("comidas", meterRegistry);
+    }
+
+    private <T> CachePorId<T> crear(String nombre, MeterRegistry meterRegistry) {
+        return switch (backend) {
+            case "caffeine" -> CachePorId.caffeine(nombre, maxSize, ttl, meterRegistry);
+            case "hibernate", "none" -> CachePorId.sinCache(nombre, meterRegistry);
+            default -> throw new IllegalStateException(
+                    "catalogo.cache.backend debe ser caffeine, hibernate o none: " + backend);
+        };
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "catalogo.cache.backend", havingValue = "hibernate")
+    public HibernatePropertiesCustomizer segundoNivelHibernate(MeterRegistry meterRegistry) {
+        CacheManager cacheManager = Caching.getCachingProvider(CaffeineCachingProvider.class.getName())
+                .getCacheManager();
+        for (Class<?> entidad : new Class<?>[] {Libro.class, Comida.class}) {
+            // La región de cada entidad se llama como su clase
+            CaffeineConfiguration<Object, Object> config = new CaffeineConfiguration<>();
+            config.setMaximumSize(OptionalLong.of(maxSize));
+            config.setExpireAfterWrite(OptionalLong.of(ttl.toNanos()));
+            config.setStatisticsEnabled(true);
+            JCacheMetrics.monitor(meterRegistry, cacheManager.createCache(entidad.getName(), config));
+        }
+        return properties -> {
+            // application.properties la deja desactivada para los otros backends
+            properties.put("hibernate.cache.use_second_level_cache", true);
+            properties.put("jakarta.persistence.sharedCache.mode", "ENABLE_SELECTIVE");
+            properties.put("hibernate.cache.region.factory_class", "jcache");
+            properties.put("hibernate.javax.cache.cache_manager", cacheManager);
+            properties.put("hibernate.javax.cache.missing_cache_strategy", "create");
+        };
+    }
+}
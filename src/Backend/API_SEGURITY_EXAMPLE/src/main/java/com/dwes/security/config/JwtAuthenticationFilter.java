@@ -1,21 +1,31 @@
 package com.dwes.security.config;
 
 import java.io.IOException;
+import java.util.List;
 
 import org.apache.commons.lang3.StringUtils;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.lang.NonNull;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContext;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import com.dwes.security.service.user.JwtService;
+import com.dwes.security.service.user.TokenRevocationService;
+import com.dwes.security.service.user.VerifiedClaims;
 import com.dwes.security.service.UserService;
 
+import io.jsonwebtoken.JwtException;
+
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -29,6 +39,19 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     private JwtService jwtService;
 	@Autowired
 	private UserService userService;
+	@Autowired
+	private TokenRevocationService revocationService;
+
+	// Modo stateless: el principal se construye con los roles del token, sin consultar la BD
+	@Value("${jwt.stateless.enabled:false}")
+	private boolean statelessEnabled;
+
+	// Rutas sensibles que siempre se vuelven a comprobar contra la BD (patrones Ant)
+	@Value("${jwt.stateless.recheck-paths:/api/v1/users/**}")
+	private List<String> recheckPaths;
+
+	private final AntPathMatcher pathMatcher = new AntPathMatcher();
+
     @Override
     protected void doFilterInternal(@NonNull HttpServletRequest request,
             @NonNull HttpServletResponse response, @NonNull FilterChain filterChain)
@@ -41,20 +64,71 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             return;
         }
         jwt = authHeader.substring(7);
-        userEmail = jwtService.extractUserName(jwt);
+        // Se verifica el token una sola vez (firma + expiración) y se reutilizan sus claims
+        final VerifiedClaims claims;
+        try {
+            claims = jwtService.verifyToken(jwt);
+        } catch (JwtException | IllegalArgumentException e) {
+            // Token inválido o expirado: la petición sigue como anónima
+            filterChain.doFilter(request, response);
+            return;
+        }
+        if (revocationService.isRevoked(claims)) {
+            // Token revocado (signout): se trata como si no hubiera token
+            filterChain.doFilter(request, response);
+            return;
+        }
+        userEmail = claims.getSubject();
         if (StringUtils.isNotEmpty(userEmail)
                 && SecurityContextHolder.getContext().getAuthentication() == null) {
-            UserDetails userDetails = userService.userDetailsService()
-                    .loadUserByUsername(userEmail);
-            if (jwtService.isTokenValid(jwt, userDetails)) {
-                SecurityContext context = SecurityContextHolder.createEmptyContext();
-                UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
+            UsernamePasswordAuthenticationToken authToken;
+            if (usarClaims(claims, request)) {
+                // Sin acceso a BD: el token ya está verificado y trae los roles
+                authToken = new UsernamePasswordAuthenticationToken(userEmail, null, authorities(claims));
+            } else {
+                UserDetails userDetails;
+                try {
+                    userDetails = userService.userDetailsService().loadUserByUsername(userEmail);
+                } catch (UsernameNotFoundException e) {
+                    // Usuario borrado después de emitir el token: petición anónima
+                    filterChain.doFilter(request, response);
+                    return;
+                }
+                if (!userEmail.equals(userDetails.getUsername())) {
+                    filterChain.doFilter(request, response);
+                    return;
+                }
+                authToken = new UsernamePasswordAuthenticationToken(
                         userDetails, null, userDetails.getAuthorities());
-                authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-                context.setAuthentication(authToken);
-                SecurityContextHolder.setContext(context);
             }
+            SecurityContext context = SecurityContextHolder.createEmptyContext();
+            authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+            context.setAuthentication(authToken);
+            SecurityContextHolder.setContext(context);
         }
         filterChain.doFilter(request, response);
     }
+
+    /**
+     * Se confía en los claims si el modo stateless está activo, el token trae roles
+     * (los tokens antiguos no los tienen) y la ruta no está marcada como sensible.
+     */
+    private boolean usarClaims(VerifiedClaims claims, HttpServletRequest request) {
+        if (!statelessEnabled || claims.getRoles().isEmpty()) {
+            return false;
+        }
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        for (String patron : recheckPaths) {
+            if (pathMatcher.match(patron, path)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static List<GrantedAuthority> authorities(VerifiedClaims claims) {
+        return claims.getRoles().stream()
+                .<GrantedAuthority>map(SimpleGrantedAuthority::new)
+                .toList();
+    }
 }
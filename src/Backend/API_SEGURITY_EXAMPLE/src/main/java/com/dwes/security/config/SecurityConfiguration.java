@@ -2,9 +2,13 @@ package com.dwes.security.config;
 
 import static org.springframework.security.config.http.SessionCreationPolicy.STATELESS;
 
+import java.time.Duration;
 import java.util.List;
 
+import jakarta.servlet.DispatcherType;
+
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
@@ -15,7 +19,6 @@ import org.springframework.security.config.annotation.authentication.configurati
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
@@ -26,6 +29,8 @@ import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 import com.dwes.security.entities.Role;
 import com.dwes.security.service.UserService;
 
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
 
 @Configuration
@@ -39,6 +44,32 @@ public class SecurityConfiguration {
     @Autowired
     UserService userService;
 
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    // Pool dedicado para BCrypt (0 = número de CPUs)
+    @Value("${security.hashing.threads:0}")
+    int hashingThreads;
+
+    @Value("${security.hashing.queue-capacity:100}")
+    int hashingQueueCapacity;
+
+    @Value("${security.hashing.timeout:PT5S}")
+    Duration hashingTimeout;
+
+    // Coste BCrypt: 0 = calibrar al arrancar para acercarse a security.bcrypt.target
+    @Value("${security.bcrypt.strength:0}")
+    int bcryptStrength;
+
+    @Value("${security.bcrypt.target:PT0.25S}")
+    Duration bcryptTarget;
+
+    @Value("${security.bcrypt.min-strength:10}")
+    int bcryptMinStrength;
+
+    @Value("${security.bcrypt.max-strength:16}")
+    int bcryptMaxStrength;
+
     @Bean
     public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
         http
@@ -48,6 +79,9 @@ public class SecurityConfiguration {
             .authorizeHttpRequests(request ->
                 request
                     .requestMatchers(HttpMethod.OPTIONS, "/**").permitAll()
+                    // Segundo dispatch de las respuestas asíncronas (exportaciones en streaming):
+                    // la petición original ya se autorizó y el filtro JWT no se repite aquí
+                    .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
 
                     .requestMatchers("/api/v1/auth/**").permitAll()
 
@@ -63,6 +97,9 @@ public class SecurityConfiguration {
 
                     .requestMatchers("/api/v1/users/**").hasAuthority("ROLE_ADMIN")
 
+                    .requestMatchers("/actuator/health").permitAll()
+                    .requestMatchers("/actuator/**").hasAuthority(Role.ROLE_ADMIN.toString())
+
                     .anyRequest().authenticated()
             )
             .sessionManagement(manager -> manager.sessionCreationPolicy(STATELESS))
@@ -74,7 +111,12 @@ public class SecurityConfiguration {
 
     @Bean
     public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+        int threads = hashingThreads > 0 ? hashingThreads : Runtime.getRuntime().availableProcessors();
+        int strength = bcryptStrength > 0 ? bcryptStrength
+                : CalibratedBCryptPasswordEncoder.calibrate(bcryptTarget, bcryptMinStrength, bcryptMaxStrength);
+        Gauge.builder("password.bcrypt.strength", () -> strength).register(meterRegistry);
+        return new OffloadingPasswordEncoder(new CalibratedBCryptPasswordEncoder(strength), threads,
+                hashingQueueCapacity, hashingTimeout, meterRegistry);
     }
 
     @Bean
@@ -82,6 +124,8 @@ public class SecurityConfiguration {
         DaoAuthenticationProvider authProvider = new DaoAuthenticationProvider();
         authProvider.setUserDetailsService(userService.userDetailsService());
         authProvider.setPasswordEncoder(passwordEncoder());
+        // Rehash transparente en el signin si el coste del hash guardado no es el vigente
+        authProvider.setUserDetailsPasswordService(userService.userDetailsPasswordService());
         return authProvider;
     }
 
@@ -123,7 +167,9 @@ public class SecurityConfiguration {
         ));
 
         config.setAllowedMethods(List.of("GET", "POST", "PUT", "DELETE", "OPTIONS"));
-        config.setAllowedHeaders(List.of("Authorization", "Content-Type"));
+        config.setAllowedHeaders(List.of("Authorization", "Content-Type", "If-None-Match", "If-Match"));
+        // El frontend necesita leer el ETag para las peticiones condicionales
+        config.setExposedHeaders(List.of("ETag"));
 
         // Para JWT en Authorization normalmente NO hace falta:
         // config.setAllowCredentials(true);
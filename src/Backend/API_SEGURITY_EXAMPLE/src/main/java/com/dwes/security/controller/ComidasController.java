@@ -1,14 +1,17 @@
 package com.dwes.security.controller;
 
 import java.util.List;
+import java.util.Set;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -18,13 +21,23 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import com.dwes.security.controller.user.AuthorizationAdminController;
+import com.dwes.security.dto.response.BatchResponse;
+import com.dwes.security.dto.response.CursorPage;
+import com.dwes.security.dto.response.PageResponse;
+import com.dwes.security.dto.response.SliceResponse;
 import com.dwes.security.entities.Comida;
+import com.dwes.security.service.CatalogoVersiones;
 import com.dwes.security.service.ComidaService;
+import com.dwes.security.service.FormatoFichero;
+import com.dwes.security.util.ETags;
 
 	@RestController
 	@RequestMapping("/api/v1/comidas")
@@ -35,23 +48,147 @@ import com.dwes.security.service.ComidaService;
 	    @Autowired
 	    private ComidaService comidaService;
 
+	    @Autowired
+	    private CatalogoVersiones catalogoVersiones;
+
 	    // Endpoint para obtener un listado de comidas, accesible solo por ROLE_USER
 	    @GetMapping
 	    @PreAuthorize("hasRole('ROLE_USER') || hasRole('ROLE_ADMIN')")
-	    public ResponseEntity<Page<Comida>> listarTodosLosComidas(
+	    public ResponseEntity<PageResponse<?>> listarTodosLosComidas(
 	            @RequestParam(defaultValue = "0") int page,
-	            @RequestParam(defaultValue = "10") int size) {
+	            @RequestParam(defaultValue = "10") int size,
+	            @RequestParam(required = false) Set<String> fields,
+	            WebRequest request) {
 	        
 	        logger.info("ComidasController :: listarTodosLosComidas");
+	        String etag = catalogoVersiones.etagComidas();
+	        if (request.checkNotModified(etag)) {
+	            return null;
+	        }
+	        // Mismo orden (por id) con y sin ?fields=, como la proyección: páginas estables
+	        Pageable pageable = PageRequest.of(page, size, Sort.by("id"));
+	        // ?fields=nombre,paisOrigen: sólo esas columnas (más el id) en la consulta y en el JSON
+	        PageResponse<?> cuerpo = fields == null
+	                ? new PageResponse<>(comidaService.listarTodosLosComidas(pageable))
+	                : new PageResponse<>(comidaService.listarComidasConCampos(pageable, fields));
+	        return ResponseEntity.ok().eTag(etag).cacheControl(CacheControl.noCache()).body(cuerpo);
+	    }
+
+	    // Listado sin COUNT(*): ?withTotal=false (sólo hay/no hay siguiente)
+	    // o ?withTotal=approx (añade un total cacheado). withTotal=true usa el listado normal.
+	    @GetMapping(params = {"withTotal", "withTotal!=true", "!after"})
+	    @PreAuthorize("hasRole('ROLE_USER') || hasRole('ROLE_ADMIN')")
+	    public ResponseEntity<SliceResponse<Comida>> listarComidasSinTotal(
+	            @RequestParam String withTotal,
+	            @RequestParam(defaultValue = "0") int page,
+	            @RequestParam(defaultValue = "10") int size,
+	            WebRequest request) {
+
+	        logger.info("ComidasController :: listarComidasSinTotal");
+	        // Parámetros inválidos dan 400 aunque el ETag coincida
+	        if (!"false".equals(withTotal) && !"approx".equals(withTotal)) {
+	            throw new IllegalArgumentException("withTotal debe ser true, false o approx");
+	        }
+	        String etag = catalogoVersiones.etagComidas();
+	        if (request.checkNotModified(etag)) {
+	            return null;
+	        }
 	        Pageable pageable = PageRequest.of(page, size);
-	        return new ResponseEntity<>(comidaService.listarTodosLosComidas(pageable), HttpStatus.OK);
+	        Long total = "approx".equals(withTotal) ? comidaService.totalAproximadoComidas() : null;
+	        return ResponseEntity.ok().eTag(etag).cacheControl(CacheControl.noCache())
+	                .body(new SliceResponse<>(comidaService.listarComidasSinTotal(pageable), total));
+	    }
+
+	    // Listado por cursor (?after=<nextCursor>): coste constante en páginas profundas.
+	    // La primera página se pide con after=0; size hasta CursorPage.MAX_SIZE.
+	    @GetMapping(params = "after")
+	    @PreAuthorize("hasRole('ROLE_USER') || hasRole('ROLE_ADMIN')")
+	    public ResponseEntity<CursorPage<Comida>> listarComidasPorCursor(
+	            @RequestParam String after,
+	            @RequestParam(defaultValue = "10") int size,
+	            WebRequest request) {
+
+	        logger.info("ComidasController :: listarComidasPorCursor");
+	        // Cursor y size inválidos dan 400 aunque el ETag coincida
+	        long desde = CursorPage.decodificar(after);
+	        // Acotado: sin límite, size+1 desborda y la consulta leería la tabla entera
+	        CursorPage.validarSize(size);
+	        String etag = catalogoVersiones.etagComidas();
+	        if (request.checkNotModified(etag)) {
+	            return null;
+	        }
+	        return ResponseEntity.ok().eTag(etag).cacheControl(CacheControl.noCache())
+	                .body(comidaService.listarComidasDesde(desde, size));
 	    }
 	    
+	    // Lectura por lotes (?ids=3,1,7): una sola petición y una consulta IN en lugar de N GET /{id}.
+	    // Respeta el orden pedido y devuelve en 'missing' los ids que no existen.
+	    @GetMapping(params = "ids")
+	    @PreAuthorize("hasRole('ROLE_USER') || hasRole('ROLE_ADMIN')")
+	    public ResponseEntity<BatchResponse<Comida>> obtenerComidasPorIds(
+	            @RequestParam List<Long> ids,
+	            WebRequest request) {
+
+	        logger.info("ComidasController :: obtenerComidasPorIds");
+	        String etag = catalogoVersiones.etagComidas();
+	        if (request.checkNotModified(etag)) {
+	            return null;
+	        }
+	        return ResponseEntity.ok().eTag(etag).cacheControl(CacheControl.noCache())
+	                .body(comidaService.obtenerComidasPorIds(ids));
+	    }
+
+	    // Búsqueda aproximada por nombre: tolera hasta 'maxDistance' erratas (sin distinguir tildes)
+	    @GetMapping("/search")
+	    @PreAuthorize("hasRole('ROLE_USER') || hasRole('ROLE_ADMIN')")
+	    public ResponseEntity<List<Comida>> buscarComidas(
+	            @RequestParam String q,
+	            @RequestParam(defaultValue = "2") int maxDistance,
+	            @RequestParam(defaultValue = "20") int limit) {
+
+	        logger.info("ComidasController :: buscarComidas");
+	        return new ResponseEntity<>(comidaService.buscarComidas(q, maxDistance, limit), HttpStatus.OK);
+	    }
+
+	    // Exportación completa en streaming (?format=ndjson|csv): la tabla se recorre con un cursor
+	    // y se escribe según se lee, sin cargarla en memoria
+	    @GetMapping("/export")
+	    @PreAuthorize("hasRole('ROLE_USER') || hasRole('ROLE_ADMIN')")
+	    public ResponseEntity<StreamingResponseBody> exportarComidas(
+	            @RequestParam(defaultValue = "ndjson") String format) {
+
+	        logger.info("ComidasController :: exportarComidas");
+	        FormatoFichero formato = FormatoFichero.desde(format);
+	        StreamingResponseBody cuerpo = salida -> comidaService.exportarComidas(salida, formato);
+	        return ResponseEntity.ok()
+	                .contentType(formato.getMediaType())
+	                .header(HttpHeaders.CONTENT_DISPOSITION,
+	                        ContentDisposition.attachment().filename("comidas." + formato.getExtension()).build().toString())
+	                .body(cuerpo);
+	    }
+
+	    // Autocompletado (type-ahead): nombres que empiezan por 'prefix', sin distinguir tildes
+	    @GetMapping("/suggest")
+	    @PreAuthorize("hasRole('ROLE_USER') || hasRole('ROLE_ADMIN')")
+	    public ResponseEntity<List<String>> sugerirNombres(
+	            @RequestParam String prefix,
+	            @RequestParam(defaultValue = "10") int limit) {
+
+	        logger.info("ComidasController :: sugerirNombres");
+	        return new ResponseEntity<>(comidaService.sugerirNombres(prefix, limit), HttpStatus.OK);
+	    }
+
 	 // Leer un comida por ID
+	    // ETag fuerte a partir de @Version: con If-None-Match igual responde 304 sin cuerpo
 	    @GetMapping("/{id}")
 	    @PreAuthorize("hasRole('ROLE_USER') || hasRole('ROLE_ADMIN')")
-	    public Comida getComidaById(@PathVariable Long id) {
-	        return comidaService.obtenerComidaPorId(id);
+	    public ResponseEntity<Comida> getComidaById(@PathVariable Long id, WebRequest request) {
+	        Comida comida = comidaService.obtenerComidaPorId(id);
+	        String etag = ETags.deVersion(comida.getVersion());
+	        if (request.checkNotModified(etag)) {
+	            return null;
+	        }
+	        return ResponseEntity.ok().eTag(etag).cacheControl(CacheControl.noCache()).body(comida);
 	    }
 
 	    // CRUD endpoints, accesibles solo por ROLE_ADMIN
@@ -65,10 +202,13 @@ import com.dwes.security.service.ComidaService;
 	    
 
 	    // Actualizar un comida
+	    // If-Match (opcional) con el ETag de GET /{id}: 412 si el recurso ha cambiado entretanto
 	    @PutMapping("/{id}")
 	    @PreAuthorize("hasRole('ROLE_ADMIN')")
-	    public Comida updateComida(@PathVariable Long id, @RequestBody Comida comidaDetails) {
-	        return comidaService.actualizarComida(id, comidaDetails);
+	    public ResponseEntity<Comida> updateComida(@PathVariable Long id, @RequestBody Comida comidaDetails,
+	            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+	        Comida comida = comidaService.actualizarComida(id, comidaDetails, ETags.versionDeIfMatch(ifMatch));
+	        return ResponseEntity.ok().eTag(ETags.deVersion(comida.getVersion())).body(comida);
 	    }
 
 	    // Eliminar un comida
@@ -1,15 +1,22 @@
 package com.dwes.security.controller;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -18,13 +25,25 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import com.dwes.security.controller.user.AuthorizationAdminController;
+import com.dwes.security.dto.response.BulkImportResponse;
+import com.dwes.security.dto.response.BatchResponse;
+import com.dwes.security.dto.response.CursorPage;
+import com.dwes.security.dto.response.PageResponse;
+import com.dwes.security.dto.response.SliceResponse;
 import com.dwes.security.entities.Libro;
+import com.dwes.security.service.CatalogoVersiones;
+import com.dwes.security.service.FormatoFichero;
+import com.dwes.security.service.LibroImportService;
 import com.dwes.security.service.LibrosService;
+import com.dwes.security.util.ETags;
 
 /** 
  * Nota 1: Es preferible mantener un solo idioma para el proyecto 
@@ -59,23 +78,170 @@ import com.dwes.security.service.LibrosService;
 	    @Autowired
 	    private LibrosService librosService;
 
+	    @Autowired
+	    private LibroImportService libroImportService;
+
+	    @Autowired
+	    private CatalogoVersiones catalogoVersiones;
+
 	    // Endpoint para obtener un listado de libros, accesible solo por ROLE_USER
 	    @GetMapping
 	    @PreAuthorize("hasRole('ROLE_USER') || hasRole('ROLE_ADMIN')")
-	    public ResponseEntity<Page<Libro>> listarTodosLosLibros(
+	    public ResponseEntity<PageResponse<?>> listarTodosLosLibros(
 	            @RequestParam(defaultValue = "0") int page,
-	            @RequestParam(defaultValue = "10") int size) {
+	            @RequestParam(defaultValue = "10") int size,
+	            @RequestParam(required = false) Set<String> fields,
+	            WebRequest request) {
 	        
 	        logger.info("LibrosController :: listarTodosLosLibros");
+	        String etag = catalogoVersiones.etagLibros();
+	        if (request.checkNotModified(etag)) {
+	            return null;
+	        }
+	        // Mismo orden (por id) con y sin ?fields=, como la proyección: páginas estables
+	        Pageable pageable = PageRequest.of(page, size, Sort.by("id"));
+	        // ?fields=titulo,autor: sólo esas columnas (más el id) en la consulta y en el JSON
+	        PageResponse<?> cuerpo = fields == null
+	                ? new PageResponse<>(librosService.listarTodosLosLibros(pageable))
+	                : new PageResponse<>(librosService.listarLibrosConCampos(pageable, fields));
+	        return ResponseEntity.ok().eTag(etag).cacheControl(CacheControl.noCache()).body(cuerpo);
+	    }
+
+	    // Listado sin COUNT(*): ?withTotal=false (sólo hay/no hay siguiente)
+	    // o ?withTotal=approx (añade un total cacheado). withTotal=true usa el listado normal.
+	    @GetMapping(params = {"withTotal", "withTotal!=true", "!after"})
+	    @PreAuthorize("hasRole('ROLE_USER') || hasRole('ROLE_ADMIN')")
+	    public ResponseEntity<SliceResponse<Libro>> listarLibrosSinTotal(
+	            @RequestParam String withTotal,
+	            @RequestParam(defaultValue = "0") int page,
+	            @RequestParam(defaultValue = "10") int size,
+	            WebRequest request) {
+
+	        logger.info("LibrosController :: listarLibrosSinTotal");
+	        // Parámetros inválidos dan 400 aunque el ETag coincida
+	        if (!"false".equals(withTotal) && !"approx".equals(withTotal)) {
+	            throw new IllegalArgumentException("withTotal debe ser true, false o approx");
+	        }
+	        String etag = catalogoVersiones.etagLibros();
+	        if (request.checkNotModified(etag)) {
+	            return null;
+	        }
 	        Pageable pageable = PageRequest.of(page, size);
-	        return new ResponseEntity<>(librosService.listarTodosLosLibros(pageable), HttpStatus.OK);
+	        Long total = "approx".equals(withTotal) ? librosService.totalAproximadoLibros() : null;
+	        return ResponseEntity.ok().eTag(etag).cacheControl(CacheControl.noCache())
+	                .body(new SliceResponse<>(librosService.listarLibrosSinTotal(pageable), total));
+	    }
+
+	    // Listado por cursor (?after=<nextCursor>): coste constante en páginas profundas.
+	    // La primera página se pide con after=0; size hasta CursorPage.MAX_SIZE.
+	    @GetMapping(params = "after")
+	    @PreAuthorize("hasRole('ROLE_USER') || hasRole('ROLE_ADMIN')")
+	    public ResponseEntity<CursorPage<Libro>> listarLibrosPorCursor(
+	            @RequestParam String after,
+	            @RequestParam(defaultValue = "10") int size,
+	            WebRequest request) {
+
+	        logger.info("LibrosController :: listarLibrosPorCursor");
+	        // Cursor y size inválidos dan 400 aunque el ETag coincida
+	        long desde = CursorPage.decodificar(after);
+	        // Acotado: sin límite, size+1 desborda y la consulta leería la tabla entera
+	        CursorPage.validarSize(size);
+	        String etag = catalogoVersiones.etagLibros();
+	        if (request.checkNotModified(etag)) {
+	            return null;
+	        }
+	        return ResponseEntity.ok().eTag(etag).cacheControl(CacheControl.noCache())
+	                .body(librosService.listarLibrosDesde(desde, size));
 	    }
 	    
+	    // Lectura por lotes (?ids=3,1,7): una sola petición y una consulta IN en lugar de N GET /{id}.
+	    // Respeta el orden pedido y devuelve en 'missing' los ids que no existen.
+	    @GetMapping(params = "ids")
+	    @PreAuthorize("hasRole('ROLE_USER') || hasRole('ROLE_ADMIN')")
+	    public ResponseEntity<BatchResponse<Libro>> obtenerLibrosPorIds(
+	            @RequestParam List<Long> ids,
+	            WebRequest request) {
+
+	        logger.info("LibrosController :: obtenerLibrosPorIds");
+	        String etag = catalogoVersiones.etagLibros();
+	        if (request.checkNotModified(etag)) {
+	            return null;
+	        }
+	        return ResponseEntity.ok().eTag(etag).cacheControl(CacheControl.noCache())
+	                .body(librosService.obtenerLibrosPorIds(ids));
+	    }
+
+	    // Búsqueda de texto en titulo y autor (no distingue tildes ni mayúsculas)
+	    @GetMapping("/search")
+	    @PreAuthorize("hasRole('ROLE_USER') || hasRole('ROLE_ADMIN')")
+	    public ResponseEntity<List<Libro>> buscarLibros(
+	            @RequestParam String q,
+	            @RequestParam(defaultValue = "20") int limit) {
+
+	        logger.info("LibrosController :: buscarLibros");
+	        return new ResponseEntity<>(librosService.buscarLibros(q, limit), HttpStatus.OK);
+	    }
+
+	    // Exportación completa en streaming (?format=ndjson|csv): la tabla se recorre con un cursor
+	    // y se escribe según se lee, sin cargarla en memoria
+	    @GetMapping("/export")
+	    @PreAuthorize("hasRole('ROLE_USER') || hasRole('ROLE_ADMIN')")
+	    public ResponseEntity<StreamingResponseBody> exportarLibros(
+	            @RequestParam(defaultValue = "ndjson") String format) {
+
+	        logger.info("LibrosController :: exportarLibros");
+	        FormatoFichero formato = FormatoFichero.desde(format);
+	        StreamingResponseBody cuerpo = salida -> librosService.exportarLibros(salida, formato);
+	        return ResponseEntity.ok()
+	                .contentType(formato.getMediaType())
+	                .header(HttpHeaders.CONTENT_DISPOSITION,
+	                        ContentDisposition.attachment().filename("libros." + formato.getExtension()).build().toString())
+	                .body(cuerpo);
+	    }
+
+	    // Autocompletado (type-ahead): títulos que empiezan por 'prefix', sin distinguir tildes
+	    @GetMapping("/suggest")
+	    @PreAuthorize("hasRole('ROLE_USER') || hasRole('ROLE_ADMIN')")
+	    public ResponseEntity<List<String>> sugerirTitulos(
+	            @RequestParam String prefix,
+	            @RequestParam(defaultValue = "10") int limit) {
+
+	        logger.info("LibrosController :: sugerirTitulos");
+	        return new ResponseEntity<>(librosService.sugerirTitulos(prefix, limit), HttpStatus.OK);
+	    }
+
 	 // Leer un libro por ID
+	    // ETag fuerte a partir de @Version: con If-None-Match igual responde 304 sin cuerpo
 	    @GetMapping("/{id}")
 	    @PreAuthorize("hasRole('ROLE_USER') || hasRole('ROLE_ADMIN')")
-	    public Libro getBookById(@PathVariable Long id) {
-	        return librosService.obtenerLibroPorId(id);
+	    public ResponseEntity<Libro> getBookById(@PathVariable Long id, WebRequest request) {
+	        Libro libro = librosService.obtenerLibroPorId(id);
+	        String etag = ETags.deVersion(libro.getVersion());
+	        if (request.checkNotModified(etag)) {
+	            return null;
+	        }
+	        return ResponseEntity.ok().eTag(etag).cacheControl(CacheControl.noCache()).body(libro);
+	    }
+
+	    // Leer un libro por ISBN-10 o ISBN-13 (guiones opcionales): las dos formas dan el mismo libro
+	    @GetMapping("/isbn/{isbn}")
+	    @PreAuthorize("hasRole('ROLE_USER') || hasRole('ROLE_ADMIN')")
+	    public ResponseEntity<Libro> getBookByIsbn(@PathVariable String isbn, WebRequest request) {
+	        Libro libro = librosService.obtenerLibroPorIsbn(isbn);
+	        String etag = ETags.deVersion(libro.getVersion());
+	        if (request.checkNotModified(etag)) {
+	            return null;
+	        }
+	        return ResponseEntity.ok().eTag(etag).cacheControl(CacheControl.noCache()).body(libro);
+	    }
+
+	    // Comprobación por lotes para importadores: cuerpo ["isbn", ...] -> {"isbn": true|false, ...}
+	    // Un ISBN mal formado da false para ese elemento; sólo pasar de 1000 da 400
+	    @PostMapping("/isbn/exists")
+	    @PreAuthorize("hasRole('ROLE_ADMIN')")
+	    public ResponseEntity<Map<String, Boolean>> existenIsbns(@RequestBody List<String> isbns) {
+	        logger.info("LibrosController :: existenIsbns");
+	        return new ResponseEntity<>(librosService.existenIsbns(isbns), HttpStatus.OK);
 	    }
 
 	    // CRUD endpoints, accesibles solo por ROLE_ADMIN
@@ -86,13 +252,28 @@ import com.dwes.security.service.LibrosService;
 	        return librosService.agregarLibro(book);
 	    }
 
+	    // Importación masiva: el cuerpo se lee en streaming (NDJSON o CSV titulo,autor,isbn)
+	    @PostMapping(value = "/bulk", consumes = {"application/x-ndjson", "text/csv"})
+	    @PreAuthorize("hasRole('ROLE_ADMIN')")
+	    public ResponseEntity<BulkImportResponse> importarLibros(
+	            @RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+	            InputStream body) throws IOException {
+
+	        logger.info("LibrosController :: importarLibros");
+	        return new ResponseEntity<>(libroImportService.importarLibros(body, FormatoFichero.desde(contentType)),
+	                HttpStatus.OK);
+	    }
+
 	    
 
 	    // Actualizar un libro
+	    // If-Match (opcional) con el ETag de GET /{id}: 412 si el recurso ha cambiado entretanto
 	    @PutMapping("/{id}")
 	    @PreAuthorize("hasRole('ROLE_ADMIN')")
-	    public Libro updateBook(@PathVariable Long id, @RequestBody Libro bookDetails) {
-	        return librosService.actualizarLibro(id, bookDetails);
+	    public ResponseEntity<Libro> updateBook(@PathVariable Long id, @RequestBody Libro bookDetails,
+	            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+	        Libro libro = librosService.actualizarLibro(id, bookDetails, ETags.versionDeIfMatch(ifMatch));
+	        return ResponseEntity.ok().eTag(ETags.deVersion(libro.getVersion())).body(libro);
 	    }
 
 	    // Eliminar un libro
@@ -1,16 +1,23 @@
 package com.dwes.security.controller.user;
 
+import org.apache.commons.lang3.StringUtils;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.dwes.security.dto.request.RefreshTokenRequest;
 import com.dwes.security.dto.request.SignUpRequest;
 import com.dwes.security.dto.request.SigninRequest;
 import com.dwes.security.dto.response.user.JwtAuthenticationResponse;
 import com.dwes.security.service.user.AuthenticationService;
+import com.dwes.security.service.user.impl.LoginThrottle;
+
+import jakarta.servlet.http.HttpServletRequest;
 
 import lombok.RequiredArgsConstructor;
 /**
@@ -22,13 +29,36 @@ import lombok.RequiredArgsConstructor;
 public class AuthenticationController {
 	@Autowired
     AuthenticationService authenticationService;
+    @Autowired
+    LoginThrottle loginThrottle;
     @PostMapping("/signup")
     public ResponseEntity<JwtAuthenticationResponse> signup(@RequestBody SignUpRequest request) {
         return ResponseEntity.ok(authenticationService.signup(request));
     }
 
     @PostMapping("/signin")
-    public ResponseEntity<JwtAuthenticationResponse> signin(@RequestBody SigninRequest request) {
+    public ResponseEntity<JwtAuthenticationResponse> signin(@RequestBody SigninRequest request,
+                                                            HttpServletRequest httpRequest) {
+        // Antes de tocar la BD o BCrypt: 429 si el email o la IP agotan sus intentos
+        loginThrottle.check(request.getEmail(), httpRequest.getRemoteAddr());
         return ResponseEntity.ok(authenticationService.signin(request));
     }
+
+    @PostMapping("/refresh")
+    public ResponseEntity<JwtAuthenticationResponse> refresh(@RequestBody RefreshTokenRequest request) {
+        return ResponseEntity.ok(authenticationService.refresh(request));
+    }
+
+    @PostMapping("/signout")
+    public ResponseEntity<Void> signout(
+            @RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authHeader,
+            @RequestBody(required = false) RefreshTokenRequest request) {
+        // Sin cabecera, con otro esquema o con el token vacío: 400 (antes, 500 por cabecera ausente)
+        if (!StringUtils.startsWith(authHeader, "Bearer ") || StringUtils.isBlank(authHeader.substring(7))) {
+            throw new IllegalArgumentException("Se esperaba un token Bearer");
+        }
+        // Cuerpo opcional {"refreshToken": ...}: sin él se cierran todas las sesiones del usuario
+        authenticationService.signout(authHeader.substring(7), request == null ? null : request.getRefreshToken());
+        return ResponseEntity.noContent().build();
+    }
 }
@@ -8,12 +8,16 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.dwes.security.dto.request.SigningKeyRequest;
 import com.dwes.security.dto.response.user.UsuarioResponse;
 import com.dwes.security.entities.Usuario;
 import com.dwes.security.service.UserService;
+import com.dwes.security.service.user.JwtService;
 
 
 @RestController
@@ -25,6 +29,8 @@ public class AuthorizationAdminController {
    @Autowired
 	private UserService userService;
 
+   @Autowired
+	private JwtService jwtService;
 
     @GetMapping
     @PreAuthorize("hasAuthority('ROLE_ADMIN')")
@@ -33,4 +39,14 @@ public class AuthorizationAdminController {
         List<UsuarioResponse> userList = userService.getAllUsers();
         return ResponseEntity.ok(userList);
     }
+
+    // Rotación en caliente de la llave de firma JWT, sin reiniciar la aplicación.
+    // Sólo afecta a esta instancia y se pierde al reiniciar: actualizar también jwt.secret
+    @PutMapping("/jwt/signing-key")
+    @PreAuthorize("hasAuthority('ROLE_ADMIN')")
+    public ResponseEntity<Void> rotateSigningKey(@RequestBody SigningKeyRequest request) {
+    	logger.info("## AuthorizationAdminController :: rotateSigningKey" );
+        jwtService.reloadSigningKey(request.getSecret(), request.isRetirePrevious());
+        return ResponseEntity.noContent().build();
+    }
 }
\ No newline at end of file
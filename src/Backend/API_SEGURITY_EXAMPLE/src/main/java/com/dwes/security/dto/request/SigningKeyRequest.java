@@ -0,0 +1,25 @@
+package com.dwes.security.dto.request;
+
+public class SigningKeyRequest {
+    // Secreto en base64url de al menos 256 bits (mismo formato que jwt.secret)
+    private String secret;
+
+    // true si la llave saliente está comprometida: no se aceptan más tokens firmados con ella
+    private boolean retirePrevious;
+
+	public String getSecret() {
+		return secret;
+	}
+
+	public void setSecret(String secret) {
+		this.secret = secret;
+	}
+
+	public boolean isRetirePrevious() {
+		return retirePrevious;
+	}
+
+	public void setRetirePrevious(boolean retirePrevious) {
+		this.retirePrevious = retirePrevious;
+	}
+}
@@ -0,0 +1,26 @@
+package com.dwes.security.dto.response;
+
+import java.util.List;
+
+/**
+ * Lectura por lotes (?ids=...): los recursos encontrados en el orden pedido
+ * y los ids que no existen, en lugar de un 404 por cada uno.
+ */
+public class BatchResponse<T> {
+
+    private final List<T> content;
+    private final List<Long> missing;
+
+    public BatchResponse(List<T> content, List<Long> missing) {
+        this.content = content;
+        this.missing = missing;
+    }
+
+    public List<T> getContent() {
+        return content;
+    }
+
+    public List<Long> getMissing() {
+        return missing;
+    }
+}
@@ -0,0 +1,79 @@
+package com.dwes.security.dto.response;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Resultado de una importación masiva: contadores y errores por fila
+ * (la lista de errores se recorta a un máximo configurable; 'fallidas' es el total real).
+ */
+public class BulkImportResponse {
+
+    private long procesadas;
+    private long insertadas;
+    private long fallidas;
+    private List<ErrorFila> errores = new ArrayList<>();
+
+    public long getProcesadas() {
+        return procesadas;
+    }
+
+    public void setProcesadas(long procesadas) {
+        this.procesadas = procesadas;
+    }
+
+    public long getInsertadas() {
+        return insertadas;
+    }
+
+    public void setInsertadas(long insertadas) {
+        this.insertadas = insertadas;
+    }
+
+    public long getFallidas() {
+        return fallidas;
+    }
+
+    public void setFallidas(long fallidas) {
+        this.fallidas = fallidas;
+    }
+
+    public List<ErrorFila> getErrores() {
+        return errores;
+    }
+
+    public void setErrores(List<ErrorFila> errores) {
+        this.errores = errores;
+    }
+
+    /** Fila rechazada: número de línea del fichero (empezando en 1) y motivo */
+    public static class ErrorFila {
+
+        private long linea;
+        private String mensaje;
+
+        public ErrorFila() {
+        }
+
+        public ErrorFila(long linea, String mensaje) {
+            this.linea = linea;
+            this.mensaje = mensaje;
+        }
+
+        public long getLinea() {
+            return linea;
+        }
+
+        public void setLinea(long linea) {
+            this.linea = linea;
+        }
+
+        public String getMensaje() {
+            return mensaje;
+        }
+
+        public void setMensaje(String mensaje) {
+            this.mensaje = mensaje;
+        }
+    }
+}
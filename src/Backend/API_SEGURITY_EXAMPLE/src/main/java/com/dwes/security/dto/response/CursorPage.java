@@ -0,0 +1,91 @@
+package com.dwes.security.dto.response;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Página de un listado por cursor (keyset): WHERE id > :after ORDER BY id LIMIT :size.
+ *
+ * 'nextCursor' es el valor a enviar como ?after= para pedir la siguiente página
+ * (null cuando no hay más). Va codificado en base64url para que el cliente no
+ * dependa de su contenido; la primera página se pide con after=0.
+ */
+public class CursorPage<T> {
+
+    /** Tamaño máximo de página: cada petición lee size+1 filas */
+    public static final int MAX_SIZE = 100;
+
+    /** Cursor de la primera página */
+    public static final String INICIO = "0";
+
+    private final List<T> content;
+    private final int size;
+    private final String nextCursor;
+
+    public CursorPage(List<T> content, int size, String nextCursor) {
+        this.content = content;
+        this.size = size;
+        this.nextCursor = nextCursor;
+    }
+
+    /**
+     * Construye la página a partir de hasta size+1 filas: la fila extra sólo indica
+     * que hay siguiente página y no se devuelve.
+     */
+    public static <T> CursorPage<T> of(List<T> filas, int size, Function<T, Long> clave) {
+        if (filas.size() <= size) {
+            return new CursorPage<>(filas, size, null);
+        }
+        List<T> content = filas.subList(0, size);
+        return new CursorPage<>(List.copyOf(content), size, codificar(clave.apply(content.get(size - 1))));
+    }
+
+    /** IllegalArgumentException (400) si 'size' está fuera de 1..MAX_SIZE */
+    public static void validarSize(int size) {
+        if (size < 1 || size > MAX_SIZE) {
+            throw new IllegalArgumentException("size debe estar entre 1 y " + MAX_SIZE);
+        }
+    }
+
+    /** Id a partir del que continuar; IllegalArgumentException (400) si el cursor no es válido */
+    public static long decodificar(String cursor) {
+        if (INICIO.equals(cursor)) {
+            return 0;
+        }
+        try {
+            long id = Long.parseLong(new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8));
+            if (id > 0) {
+                return id;
+            }
+        } catch (IllegalArgumentException e) {
+            // base64 o número mal formado (NumberFormatException es IllegalArgumentException)
+        }
+        throw new IllegalArgumentException("Cursor no válido: " + cursor);
+    }
+
+    static String codificar(long id) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(Long.toString(id).getBytes(StandardCharsets.UTF_8));
+    }
+
+    public List<T> getContent() {
+        return content;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public int getNumberOfElements() {
+        return content.size();
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public boolean isLast() {
+        return nextCursor == null;
+    }
+}
@@ -0,0 +1,61 @@
+package com.dwes.security.dto.response;
+
+import java.util.List;
+
+import org.springframework.data.domain.Page;
+
+/**
+ * Página con total (listado por defecto y ?fields=).
+ *
+ * Sustituye a serializar PageImpl directamente: mismos 'content' y contadores,
+ * sin los objetos 'pageable' y 'sort' que repetían en cada respuesta lo que ya
+ * indican 'number' y 'size'.
+ */
+public class PageResponse<T> {
+
+    private final List<T> content;
+    private final int number;
+    private final int size;
+    private final long totalElements;
+    private final int totalPages;
+
+    public PageResponse(Page<T> page) {
+        this.content = page.getContent();
+        this.number = page.getNumber();
+        this.size = page.getSize();
+        this.totalElements = page.getTotalElements();
+        this.totalPages = page.getTotalPages();
+    }
+
+    public List<T> getContent() {
+        return content;
+    }
+
+    public int getNumber() {
+        return number;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public int getNumberOfElements() {
+        return content.size();
+    }
+
+    public long getTotalElements() {
+        return totalElements;
+    }
+
+    public int getTotalPages() {
+        return totalPages;
+    }
+
+    public boolean isFirst() {
+        return number == 0;
+    }
+
+    public boolean isLast() {
+        return number + 1 >= totalPages;
+    }
+}
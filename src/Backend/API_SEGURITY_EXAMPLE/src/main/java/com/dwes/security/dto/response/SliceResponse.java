@@ -0,0 +1,65 @@
+package com.dwes.security.dto.response;
+
+import java.util.List;
+
+import org.springframework.data.domain.Slice;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * Página sin COUNT(*) (?withTotal=false|approx): sólo indica si hay página siguiente.
+ *
+ * Con withTotal=approx se añade 'approxTotalElements', un total cacheado que se
+ * recalcula periódicamente (puede ir algo por detrás de la tabla).
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class SliceResponse<T> {
+
+    private final List<T> content;
+    private final int number;
+    private final int size;
+    private final boolean first;
+    private final boolean last;
+    private final Long approxTotalElements;
+
+    public SliceResponse(Slice<T> slice, Long approxTotalElements) {
+        this.content = slice.getContent();
+        this.number = slice.getNumber();
+        this.size = slice.getSize();
+        this.first = slice.isFirst();
+        this.last = slice.isLast();
+        this.approxTotalElements = approxTotalElements;
+    }
+
+    public List<T> getContent() {
+        return content;
+    }
+
+    public int getNumber() {
+        return number;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public int getNumberOfElements() {
+        return content.size();
+    }
+
+    public boolean isFirst() {
+        return first;
+    }
+
+    public boolean isLast() {
+        return last;
+    }
+
+    public boolean isHasNext() {
+        return !last;
+    }
+
+    public Long getApproxTotalElements() {
+        return approxTotalElements;
+    }
+}
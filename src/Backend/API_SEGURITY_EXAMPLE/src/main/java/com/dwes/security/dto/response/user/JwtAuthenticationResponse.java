@@ -3,11 +3,17 @@ package com.dwes.security.dto.response.user;
 
 public class JwtAuthenticationResponse {
     private String token;
+    private String refreshToken;
 
 	public JwtAuthenticationResponse(String token) {
 		this.token = token;
 	}
 
+	public JwtAuthenticationResponse(String token, String refreshToken) {
+		this.token = token;
+		this.refreshToken = refreshToken;
+	}
+
 	public String getToken() {
 		return token;
 	}
@@ -16,20 +22,34 @@ public class JwtAuthenticationResponse {
 		this.token = token;
 	}
 
+	public String getRefreshToken() {
+		return refreshToken;
+	}
+
+	public void setRefreshToken(String refreshToken) {
+		this.refreshToken = refreshToken;
+	}
+
     public static JwtAuthenticationResponseBuilder builder() {
         return new JwtAuthenticationResponseBuilder();
     }
 
     public static class JwtAuthenticationResponseBuilder {
         private String token;
+        private String refreshToken;
 
         public JwtAuthenticationResponseBuilder token(String token) {
             this.token = token;
             return this;
         }
 
+        public JwtAuthenticationResponseBuilder refreshToken(String refreshToken) {
+            this.refreshToken = refreshToken;
+            return this;
+        }
+
         public JwtAuthenticationResponse build() {
-            return new JwtAuthenticationResponse(token);
+            return new JwtAuthenticationResponse(token, refreshToken);
         }
     }
     
@@ -1,12 +1,20 @@
 package com.dwes.security.entities;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 
+// Sólo se usa con catalogo.cache.backend=hibernate (caché de 2º nivel)
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @Entity
 @Table(name = "comidas")
 public class Comida {
@@ -21,6 +29,10 @@ public class Comida {
     @Column(name = "pais_origen", nullable = false)
     private String paisOrigen;
 
+    // Bloqueo optimista y ETag de GET /api/v1/comidas/{id}
+    @Version
+    private long version;
+
     public Comida() {
     }
 
@@ -52,4 +64,12 @@ public class Comida {
     public void setPaisOrigen(String paisOrigen) {
         this.paisOrigen = paisOrigen;
     }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
 }
\ No newline at end of file
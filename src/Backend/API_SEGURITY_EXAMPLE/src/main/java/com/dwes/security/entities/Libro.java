@@ -1,15 +1,28 @@
 package com.dwes.security.entities;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
+import com.dwes.security.util.Isbn;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Pattern;
 import jakarta.validation.constraints.Size;
 
+// Sólo se usa con catalogo.cache.backend=hibernate (caché de 2º nivel)
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @Entity
 @Table(name = "libros")
 public class Libro {
@@ -30,6 +43,16 @@ public class Libro {
     message = "ISBN debe ser 10 (con X posible) o 13 dígitos")
     private String isbn;
 
+    // Clave ISBN-13 normalizada (util.Isbn): ISBN-10 e ISBN-13 del mismo libro coinciden.
+    // Índice único para GET /api/v1/libros/isbn/{isbn} y las comprobaciones de duplicados
+    @JsonIgnore
+    @Column(name = "isbn13", length = 13, unique = true)
+    private String isbn13;
+
+    // Bloqueo optimista y ETag de GET /api/v1/libros/{id}
+    @Version
+    private long version;
+
 	public Long getId() {
 		return id;
 	}
@@ -62,6 +85,28 @@ public class Libro {
 		this.isbn = isbn;
 	}
 
+	public String getIsbn13() {
+		return isbn13;
+	}
+
+	public void setIsbn13(String isbn13) {
+		this.isbn13 = isbn13;
+	}
+
+	@PrePersist
+	@PreUpdate
+	void calcularIsbn13() {
+		this.isbn13 = Isbn.normalizarONull(isbn);
+	}
+
+	public long getVersion() {
+		return version;
+	}
+
+	public void setVersion(long version) {
+		this.version = version;
+	}
+
 	
 
     
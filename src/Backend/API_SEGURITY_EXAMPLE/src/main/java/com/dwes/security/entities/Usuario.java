@@ -10,11 +10,14 @@ import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 
 
+import com.dwes.security.service.user.impl.UsuarioCacheListener;
+
 import jakarta.persistence.*;
 import jakarta.transaction.Transactional;
 
 
 @Entity
+@EntityListeners(UsuarioCacheListener.class)
 public class Usuario implements UserDetails {
 	  private static final long serialVersionUID = 1L;
 	  	@Id
@@ -32,6 +35,22 @@ public class Usuario implements UserDetails {
 	    @Column(name ="RolesUsuario")
 	    private Set<Role> roles = new HashSet<>();
 
+	    // Bloqueo optimista; además, un cambio sólo de roles (la colección) incrementa la versión,
+	    // así que actualiza la fila y dispara @PostUpdate (UsuarioCacheListener)
+	    @Version
+	    private long version;
+
+	    // Email con el que se cargó o guardó por última vez: si cambia, la caché lo tiene con el anterior
+	    @Transient
+	    private String emailCargado;
+
+	    @PostLoad
+	    @PostPersist
+	    @PostUpdate
+	    void recordarEmail() {
+	        emailCargado = email;
+	    }
+
 
 	    @Transactional
 	    @Override
@@ -109,6 +128,12 @@ public class Usuario implements UserDetails {
 		public String getEmail() {
 			return email;
 		}
+		public String getEmailCargado() {
+			return emailCargado;
+		}
+		public long getVersion() {
+			return version;
+		}
 	    
 	    
 }
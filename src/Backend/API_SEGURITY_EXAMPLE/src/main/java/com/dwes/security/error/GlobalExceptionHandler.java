@@ -2,6 +2,8 @@ package com.dwes.security.error;
 
 import java.util.Date;
 
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.AccessDeniedException;
@@ -13,6 +15,11 @@ import org.springframework.web.servlet.NoHandlerFoundException;
 import com.dwes.security.dto.response.error.ErrorDetailsResponse;
 import com.dwes.security.error.exception.LibroNotFoundException;
 import com.dwes.security.error.exception.ComidaNotFoundException;
+import com.dwes.security.error.exception.InvalidRefreshTokenException;
+import com.dwes.security.error.exception.IsbnAlreadyExistsException;
+import com.dwes.security.error.exception.PasswordHashingUnavailableException;
+import com.dwes.security.error.exception.PreconditionFailedException;
+import com.dwes.security.error.exception.TooManyLoginAttemptsException;
 
 
 @ControllerAdvice
@@ -79,6 +86,106 @@ public class GlobalExceptionHandler {
 
         return new ResponseEntity<>(errorDetails, HttpStatus.NOT_FOUND);
     }
+    /**
+     * ####################################################
+     * #   Refresh token no válido  401                   ##
+     * #####################################################
+     * @param ex
+     * @param request
+     * @return
+     */
+    @ExceptionHandler(InvalidRefreshTokenException.class)
+    public ResponseEntity<ErrorDetailsResponse> handleInvalidRefreshTokenException(InvalidRefreshTokenException ex, WebRequest request) {
+        ErrorDetailsResponse errorDetails = new ErrorDetailsResponse(
+            new Date(),
+            ex.getMessage(),
+            request.getDescription(false));
+        return new ResponseEntity<>(errorDetails, HttpStatus.UNAUTHORIZED);
+    }
+    /**
+     * ####################################################
+     * #   If-Match no coincide  412                      ##
+     * #####################################################
+     * @param ex
+     * @param request
+     * @return
+     */
+    @ExceptionHandler(PreconditionFailedException.class)
+    public ResponseEntity<ErrorDetailsResponse> handlePreconditionFailedException(PreconditionFailedException ex, WebRequest request) {
+        ErrorDetailsResponse errorDetails = new ErrorDetailsResponse(
+            new Date(),
+            ex.getMessage(),
+            request.getDescription(false));
+        return new ResponseEntity<>(errorDetails, HttpStatus.PRECONDITION_FAILED);
+    }
+    /**
+     * ####################################################
+     * #   Modificación concurrente (@Version)  409       ##
+     * #####################################################
+     * @param ex
+     * @param request
+     * @return
+     */
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<ErrorDetailsResponse> handleOptimisticLockingFailureException(OptimisticLockingFailureException ex, WebRequest request) {
+        ErrorDetailsResponse errorDetails = new ErrorDetailsResponse(
+            new Date(),
+            "El recurso ha sido modificado por otra petición",
+            request.getDescription(false));
+        return new ResponseEntity<>(errorDetails, HttpStatus.CONFLICT);
+    }
+    /**
+     * ####################################################
+     * #   ISBN ya registrado en otro libro  409          ##
+     * #####################################################
+     * @param ex
+     * @param request
+     * @return
+     */
+    @ExceptionHandler(IsbnAlreadyExistsException.class)
+    public ResponseEntity<ErrorDetailsResponse> handleIsbnAlreadyExistsException(IsbnAlreadyExistsException ex, WebRequest request) {
+        ErrorDetailsResponse errorDetails = new ErrorDetailsResponse(
+            new Date(),
+            ex.getMessage(),
+            request.getDescription(false));
+        return new ResponseEntity<>(errorDetails, HttpStatus.CONFLICT);
+    }
+    /**
+     * ####################################################
+     * #   Hashing de contraseñas saturado  503          ##
+     * #####################################################
+     * @param ex
+     * @param request
+     * @return
+     */
+    @ExceptionHandler(PasswordHashingUnavailableException.class)
+    public ResponseEntity<ErrorDetailsResponse> handlePasswordHashingUnavailableException(PasswordHashingUnavailableException ex, WebRequest request) {
+        ErrorDetailsResponse errorDetails = new ErrorDetailsResponse(
+            new Date(),
+            ex.getMessage(),
+            request.getDescription(false));
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(errorDetails);
+    }
+    /**
+     * ####################################################
+     * #   Demasiados intentos de signin  429             ##
+     * #####################################################
+     * @param ex
+     * @param request
+     * @return
+     */
+    @ExceptionHandler(TooManyLoginAttemptsException.class)
+    public ResponseEntity<ErrorDetailsResponse> handleTooManyLoginAttemptsException(TooManyLoginAttemptsException ex, WebRequest request) {
+        ErrorDetailsResponse errorDetails = new ErrorDetailsResponse(
+            new Date(),
+            ex.getMessage(),
+            request.getDescription(false));
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                .body(errorDetails);
+    }
     /**
      * ####################################################
      * #     "Error interno del servidor" Exception 500   ##
@@ -1,10 +1,15 @@
 package com.dwes.security.error.exception;
 
+/**
+ * Sin traza, igual que LibroNotFoundException; NO_ENCONTRADA es una instancia compartida.
+ */
 public class ComidaNotFoundException extends RuntimeException {
 
     private static final long serialVersionUID = 1L;
 
+    public static final ComidaNotFoundException NO_ENCONTRADA = new ComidaNotFoundException("Comida no encontrada");
+
     public ComidaNotFoundException(String message) {
-        super(message);
+        super(message, null, false, false);
     }
 }
@@ -0,0 +1,13 @@
+package com.dwes.security.error.exception;
+
+/**
+ * Refresh token desconocido, caducado o ya utilizado (se traduce a 401).
+ */
+public class InvalidRefreshTokenException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public InvalidRefreshTokenException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,14 @@
+package com.dwes.security.error.exception;
+
+/**
+ * Ya hay otro libro con el mismo ISBN (comparando la clave ISBN-13 normalizada,
+ * así que un ISBN-10 choca con su ISBN-13 equivalente). Se traduce a 409.
+ */
+public class IsbnAlreadyExistsException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public IsbnAlreadyExistsException(String message) {
+        super(message);
+    }
+}
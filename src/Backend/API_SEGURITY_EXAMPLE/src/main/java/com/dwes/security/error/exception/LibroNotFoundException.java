@@ -1,10 +1,17 @@
 package com.dwes.security.error.exception;
 
+/**
+ * Sin traza ni excepciones suprimidas: los 404 por ids inexistentes son frecuentes
+ * (clientes desfasados, scrapers) y rellenar la pila sería casi todo su coste.
+ * Al no tener estado mutable, NO_ENCONTRADO se puede lanzar desde cualquier hilo.
+ */
 public class LibroNotFoundException extends RuntimeException {
 
     private static final long serialVersionUID = 1L;
 
+    public static final LibroNotFoundException NO_ENCONTRADO = new LibroNotFoundException("Libro no encontrado");
+
 	public LibroNotFoundException(String message) {
-        super(message);
+        super(message, null, false, false);
     }
 }
\ No newline at end of file
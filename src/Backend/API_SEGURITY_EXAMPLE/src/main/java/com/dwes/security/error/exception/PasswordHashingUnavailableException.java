@@ -0,0 +1,14 @@
+package com.dwes.security.error.exception;
+
+/**
+ * El pool de hashing de contraseñas está saturado: se rechaza la petición
+ * en lugar de bloquear más hilos de Tomcat (se traduce a 503).
+ */
+public class PasswordHashingUnavailableException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public PasswordHashingUnavailableException(String message) {
+        super(message);
+    }
+}
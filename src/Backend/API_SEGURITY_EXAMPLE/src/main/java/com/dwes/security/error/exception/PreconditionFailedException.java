@@ -0,0 +1,14 @@
+package com.dwes.security.error.exception;
+
+/**
+ * El If-Match de la petición no coincide con la versión actual del recurso:
+ * alguien lo ha modificado desde que el cliente lo leyó (se traduce a 412).
+ */
+public class PreconditionFailedException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public PreconditionFailedException(String message) {
+        super(message);
+    }
+}
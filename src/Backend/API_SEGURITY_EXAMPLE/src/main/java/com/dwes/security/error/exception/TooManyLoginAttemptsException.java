@@ -0,0 +1,21 @@
+package com.dwes.security.error.exception;
+
+/**
+ * Demasiados intentos de signin para el email o la IP (se traduce a 429).
+ * No se incluye la traza: se lanza en cada petición rechazada.
+ */
+public class TooManyLoginAttemptsException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final long retryAfterSeconds;
+
+    public TooManyLoginAttemptsException(long retryAfterSeconds) {
+        super("Demasiados intentos de inicio de sesión", null, false, false);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -1,11 +1,36 @@
 package com.dwes.security.repository;
 
 
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.hibernate.jpa.HibernateHints;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 import com.dwes.security.entities.Comida;
 
+import jakarta.persistence.QueryHint;
+
 @Repository
 public interface ComidaRepository extends JpaRepository<Comida, Long> {
-    // métodos adicionales (si hace falta) pueden ir aquí
+    // Paginación por cursor: WHERE id > ? ORDER BY id LIMIT ? (usa el índice de la PK, sin OFFSET)
+    List<Comida> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+
+    // Listado sin COUNT(*): Spring Data pide size+1 filas para saber si hay siguiente
+    Slice<Comida> findAllBy(Pageable pageable);
+
+    // Exportación: cursor de sólo avance leído por bloques de 'fetch size' filas
+    // (en MySQL requiere useCursorFetch=true); consumir dentro de una transacción y cerrar el Stream
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select c from Comida c order by c.id")
+    Stream<Comida> streamAllOrderById();
 }
\ No newline at end of file
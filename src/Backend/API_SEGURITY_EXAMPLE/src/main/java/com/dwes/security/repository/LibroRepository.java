@@ -1,13 +1,60 @@
 package com.dwes.security.repository;
 
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import org.hibernate.jpa.HibernateHints;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 
 import org.springframework.stereotype.Repository;
 
 import com.dwes.security.entities.Libro;
+
+import jakarta.persistence.QueryHint;
+
 @Repository
 public interface LibroRepository extends JpaRepository<Libro, Long> {
+	// Paginación por cursor: WHERE id > ? ORDER BY id LIMIT ? (usa el índice de la PK, sin OFFSET)
+	List<Libro> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+
+	// Listado sin COUNT(*): Spring Data pide size+1 filas para saber si hay siguiente
+	Slice<Libro> findAllBy(Pageable pageable);
+
+	// Exportación: cursor de sólo avance leído por bloques de 'fetch size' filas
+	// (en MySQL requiere useCursorFetch=true); consumir dentro de una transacción y cerrar el Stream
+	@QueryHints({
+	        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+	        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+	})
+	@Query("select l from Libro l order by l.id")
+	Stream<Libro> streamAllOrderById();
+
+	// Búsqueda por la clave ISBN-13 normalizada (índice único isbn13)
+	@Query("select l.id from Libro l where l.isbn13 = :isbn13")
+	Optional<Long> findIdByIsbn13(String isbn13);
+
+	boolean existsByIsbn13AndIdNot(String isbn13, Long id);
+
+	boolean existsByIsbn13(String isbn13);
+
+	// Comprobación por lotes: una consulta IN sobre el índice, sólo devuelve las claves existentes
+	@Query("select l.isbn13 from Libro l where l.isbn13 in :isbn13s")
+	List<String> findIsbn13Existentes(Collection<String> isbn13s);
+
+	// ISBN para el filtro de existencia (sin cargar entidades)
+	@QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+	@Query("select l.isbn from Libro l")
+	Stream<String> streamIsbns();
+
 	/* @Query("SELECT p.libro FROM Prestamo p WHERE p.usuario.id = :usuarioId")
 	 List<Libro> findLibrosPrestadosPorUsuario(Integer usuarioId);*/
 }
@@ -0,0 +1,40 @@
+package com.dwes.security.repository;
+
+import java.time.Instant;
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.dwes.security.entities.RefreshToken;
+
+@Repository
+public interface RefreshTokenRepository extends JpaRepository<RefreshToken, Long> {
+
+    @EntityGraph(attributePaths = "usuario")
+    Optional<RefreshToken> findByTokenHash(String tokenHash);
+
+    // Marca el token como usado sólo si nadie lo ha hecho antes (0 = reutilización)
+    @Modifying
+    @Query("update RefreshToken r set r.used = true where r.id = :id and r.used = false")
+    int marcarUsado(@Param("id") Long id);
+
+    @Modifying
+    @Query("update RefreshToken r set r.used = true where r.familyId = :familyId")
+    int revocarFamilia(@Param("familyId") String familyId);
+
+    // Signout sin refresh token: cierra todas las sesiones (familias) del usuario
+    @Modifying
+    @Query("update RefreshToken r set r.used = true where r.used = false"
+            + " and r.usuario.id in (select u.id from Usuario u where u.email = :email)")
+    int revocarTodasDeUsuario(@Param("email") String email);
+
+    @Modifying
+    @Transactional
+    long deleteByExpiresAtBefore(Instant instante);
+}
@@ -0,0 +1,21 @@
+package com.dwes.security.repository;
+
+import java.time.Instant;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.dwes.security.entities.RevokedToken;
+
+@Repository
+public interface RevokedTokenRepository extends JpaRepository<RevokedToken, String> {
+    // Revocaciones todavía vigentes (se cargan al arrancar y en cada refresco)
+    List<RevokedToken> findByExpiresAtAfter(Instant instante);
+
+    @Modifying
+    @Transactional
+    long deleteByExpiresAtBefore(Instant instante);
+}
@@ -0,0 +1,79 @@
+package com.dwes.security.service;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Contadores de cambios del catálogo para los ETag de los listados.
+ *
+ * Cada escritura de libros o comidas de esta instancia (incluido cada lote de la
+ * importación) incrementa su contador después de guardar, así un If-None-Match de
+ * un listado se resuelve con un 304 sin consultar la BD. El instante de arranque
+ * forma parte del ETag porque los contadores empiezan de cero en cada reinicio.
+ *
+ * Límite: el contador es de esta JVM. Las escrituras de otras instancias o de SQL
+ * directo sólo se notan a través de la huella de cada tabla (filas, id máximo y suma
+ * de @Version), que se recalcula cada catalogo.etag.refresh-interval si
+ * catalogo.etag.fingerprint.enabled=true; hasta entonces esta instancia puede
+ * responder 304 con datos que ya han cambiado. La huella recorre la tabla entera
+ * (count y sum no salen de un índice), por eso está desactivada por defecto: con una
+ * sola instancia escribiendo no hace falta. Con varias instancias cada una emite
+ * ETag distintos (sólo cuesta 200 en lugar de 304).
+ */
+@Component
+public class CatalogoVersiones {
+
+    private final String arranque = Long.toString(System.currentTimeMillis(), 36);
+
+    private final AtomicLong libros = new AtomicLong();
+
+    private final AtomicLong comidas = new AtomicLong();
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${catalogo.etag.fingerprint.enabled:false}")
+    private boolean huellaHabilitada;
+
+    // Huella de la tabla en la BD; vacía hasta el primer cálculo
+    private volatile String huellaLibros = "";
+
+    private volatile String huellaComidas = "";
+
+    public void librosModificados() {
+        libros.incrementAndGet();
+    }
+
+    public void comidasModificadas() {
+        comidas.incrementAndGet();
+    }
+
+    public String etagLibros() {
+        return "\"libros-" + arranque + "-" + libros.get() + huellaLibros + "\"";
+    }
+
+    public String etagComidas() {
+        return "\"comidas-" + arranque + "-" + comidas.get() + huellaComidas + "\"";
+    }
+
+    @Scheduled(fixedDelayString = "${catalogo.etag.refresh-interval:PT30S}")
+    public void refrescarHuellas() {
+        if (!huellaHabilitada) {
+            return;
+        }
+        huellaLibros = huella("libros");
+        huellaComidas = huella("comidas");
+    }
+
+    private String huella(String tabla) {
+        return jdbcTemplate.queryForObject(
+                "select count(*), coalesce(max(id), 0), coalesce(sum(version), 0) from " + tabla,
+                (rs, fila) -> "-" + Long.toString(rs.getLong(1), 36) + "." + Long.toString(rs.getLong(2), 36)
+                        + "." + Long.toString(rs.getLong(3), 36));
+    }
+}
@@ -1,8 +1,17 @@
 package com.dwes.security.service;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 
+import com.dwes.security.dto.response.BatchResponse;
+import com.dwes.security.dto.response.CursorPage;
 import com.dwes.security.entities.Usuario;
 import com.dwes.security.entities.Comida;
 import com.dwes.security.entities.Prestamo;
@@ -13,10 +22,36 @@ public interface ComidaService {
 
     Page<Comida> listarTodosLosComidas(Pageable pageable);
 
+    /** Listado con sólo los campos pedidos (?fields=), más el id; cada fila es campo -> valor */
+    Page<Map<String, Object>> listarComidasConCampos(Pageable pageable, Set<String> campos);
+
+    /** size ya validado con CursorPage.validarSize (lo hace el controlador, antes del ETag) */
+    CursorPage<Comida> listarComidasDesde(Long after, int size);
+
+    Slice<Comida> listarComidasSinTotal(Pageable pageable);
+
+    /** Búsqueda aproximada por nombre (tolera erratas), ordenada por cercanía */
+    List<Comida> buscarComidas(String consulta, int maxDistancia, int limite);
+
+    /** Autocompletado: nombres de comida que empiezan por 'prefijo' */
+    List<String> sugerirNombres(String prefijo, int limite);
+
+    /** Total de comidas cacheado (se recalcula periódicamente, no en cada petición) */
+    long totalAproximadoComidas();
+
+    /** Vuelca toda la tabla en 'salida' (NDJSON o CSV) leyéndola en streaming; devuelve las filas escritas */
+    long exportarComidas(OutputStream salida, FormatoFichero formato) throws IOException;
+
     Comida obtenerComidaPorId(Long id);
 
+    /** Varios ids con una sola consulta: encontrados en el orden pedido y lista de ids inexistentes */
+    BatchResponse<Comida> obtenerComidasPorIds(List<Long> ids);
+
     Comida actualizarComida(Long id, Comida comida);
 
+    /** Como actualizarComida, pero exige que la versión actual sea 'versionEsperada' (If-Match); null = sin condición */
+    Comida actualizarComida(Long id, Comida comida, Long versionEsperada);
+
     void eliminarComida(Long id);
 
     Page<Comida> listarComidasPrestadosPorUsuario(Integer usuarioId, Pageable pageable);
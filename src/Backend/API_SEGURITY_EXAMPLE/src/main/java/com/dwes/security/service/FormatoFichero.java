@@ -0,0 +1,39 @@
+package com.dwes.security.service;
+
+import org.springframework.http.MediaType;
+
+/** Formatos de fichero por líneas admitidos en importaciones y exportaciones */
+public enum FormatoFichero {
+
+    NDJSON(MediaType.parseMediaType("application/x-ndjson")),
+    CSV(MediaType.parseMediaType("text/csv"));
+
+    private final MediaType mediaType;
+
+    FormatoFichero(MediaType mediaType) {
+        this.mediaType = mediaType;
+    }
+
+    public MediaType getMediaType() {
+        return mediaType;
+    }
+
+    public String getExtension() {
+        return name().toLowerCase();
+    }
+
+    /** Formato a partir de un Content-Type compatible (por defecto NDJSON) */
+    public static FormatoFichero desde(MediaType contentType) {
+        return CSV.mediaType.includes(contentType) ? CSV : NDJSON;
+    }
+
+    /** Formato a partir de un parámetro ?format=csv|ndjson */
+    public static FormatoFichero desde(String nombre) {
+        for (FormatoFichero formato : values()) {
+            if (formato.name().equalsIgnoreCase(nombre)) {
+                return formato;
+            }
+        }
+        throw new IllegalArgumentException("format debe ser ndjson o csv");
+    }
+}
@@ -0,0 +1,16 @@
+package com.dwes.security.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import com.dwes.security.dto.response.BulkImportResponse;
+
+public interface LibroImportService {
+
+    /**
+     * Importa libros leyendo la entrada línea a línea (NDJSON o CSV titulo,autor,isbn)
+     * e insertándolos por lotes JDBC. Las filas no válidas o con ISBN repetido se
+     * devuelven como errores sin interrumpir la importación.
+     */
+    BulkImportResponse importarLibros(InputStream entrada, FormatoFichero formato) throws IOException;
+}
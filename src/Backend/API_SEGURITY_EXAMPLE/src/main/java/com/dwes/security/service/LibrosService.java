@@ -1,10 +1,17 @@
 package com.dwes.security.service;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 
+import com.dwes.security.dto.response.BatchResponse;
+import com.dwes.security.dto.response.CursorPage;
 import com.dwes.security.entities.Libro;
 import com.dwes.security.entities.Prestamo;
 import com.dwes.security.entities.Usuario;
@@ -15,10 +22,42 @@ public interface LibrosService {
 
     Page<Libro> listarTodosLosLibros(Pageable pageable);
 
+    /** Listado con sólo los campos pedidos (?fields=), más el id; cada fila es campo -> valor */
+    Page<Map<String, Object>> listarLibrosConCampos(Pageable pageable, Set<String> campos);
+
+    /** size ya validado con CursorPage.validarSize (lo hace el controlador, antes del ETag) */
+    CursorPage<Libro> listarLibrosDesde(Long after, int size);
+
+    Slice<Libro> listarLibrosSinTotal(Pageable pageable);
+
+    /** Búsqueda por titulo/autor en el índice en memoria (sin tildes, ordenada por relevancia) */
+    List<Libro> buscarLibros(String consulta, int limite);
+
+    /** Autocompletado: títulos que empiezan por 'prefijo' */
+    List<String> sugerirTitulos(String prefijo, int limite);
+
+    /** Total de libros cacheado (se recalcula periódicamente, no en cada petición) */
+    long totalAproximadoLibros();
+
+    /** Vuelca toda la tabla en 'salida' (NDJSON o CSV) leyéndola en streaming; devuelve las filas escritas */
+    long exportarLibros(OutputStream salida, FormatoFichero formato) throws IOException;
+
     Libro obtenerLibroPorId(Long id);
 
+    /** Varios ids con una sola consulta: encontrados en el orden pedido y lista de ids inexistentes */
+    BatchResponse<Libro> obtenerLibrosPorIds(List<Long> ids);
+
+    /** Libro por ISBN-10 o ISBN-13 (con o sin guiones): ambas formas dan el mismo libro */
+    Libro obtenerLibroPorIsbn(String isbn);
+
+    /** Para cada ISBN recibido (en el mismo orden), si ya hay un libro con él; false si no tiene forma de ISBN */
+    Map<String, Boolean> existenIsbns(List<String> isbns);
+
     Libro actualizarLibro(Long id, Libro libro);
 
+    /** Como actualizarLibro, pero exige que la versión actual sea 'versionEsperada' (If-Match); null = sin condición */
+    Libro actualizarLibro(Long id, Libro libro, Long versionEsperada);
+
     void eliminarLibro(Long id);
 
     Page<Libro> listarLibrosPrestadosPorUsuario(Integer usuarioId, Pageable pageable);
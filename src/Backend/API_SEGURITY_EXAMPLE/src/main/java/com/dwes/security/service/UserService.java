@@ -2,11 +2,16 @@ package com.dwes.security.service;
 
 import java.util.List;
 
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 
 import com.dwes.security.dto.response.user.UsuarioResponse;
 
 public interface UserService {
     UserDetailsService userDetailsService();
+    /** Guarda el nuevo hash cuando DaoAuthenticationProvider rehashea la contraseña */
+    UserDetailsPasswordService userDetailsPasswordService();
     List<UsuarioResponse> getAllUsers();
+    /** Descarta el usuario de la caché de UserDetails (alta, cambio de roles, borrado) */
+    void evictUserDetails(String email);
 }
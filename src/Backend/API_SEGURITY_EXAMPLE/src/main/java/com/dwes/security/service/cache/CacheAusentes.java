@@ -0,0 +1,70 @@
+package com.dwes.security.service.cache;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Caché negativa con TTL: claves (ids, ISBN) que la BD acaba de confirmar como ausentes.
+ *
+ * Permite responder 404 sin consultar (ausenteConfirmado). Entre nodos puede ir hasta
+ * catalogo.negative.absent-ttl por detrás de un alta hecha en otra instancia.
+ * Publica catalogo.negative.hits{filtro=...,fuente=cache}.
+ */
+public class CacheAusentes {
+
+    private final Cache<String, Boolean> ausentes;
+
+    // Altas registradas: evita cachear como ausente una clave creada durante la consulta
+    private final AtomicLong altas = new AtomicLong();
+
+    private final Counter descartadasCache;
+
+    public CacheAusentes(String nombre, long maxAusentes, Duration ttlAusentes, MeterRegistry meterRegistry) {
+        this.ausentes = Caffeine.newBuilder()
+                .maximumSize(maxAusentes)
+                .expireAfterWrite(ttlAusentes)
+                .build();
+        this.descartadasCache = Counter.builder("catalogo.negative.hits")
+                .tag("filtro", nombre).tag("fuente", "cache").register(meterRegistry);
+    }
+
+    /**
+     * La BD confirmó hace menos de catalogo.negative.absent-ttl que la clave no existe
+     * (y desde entonces no se ha dado de alta en esta instancia): se puede responder 404.
+     */
+    public boolean ausenteConfirmado(String clave) {
+        if (ausentes.getIfPresent(clave) != null) {
+            descartadasCache.increment();
+            return true;
+        }
+        return false;
+    }
+
+    /** Marca a tomar antes de consultar la BD y pasar después a marcarAusente */
+    public long marca() {
+        return altas.get();
+    }
+
+    /** La BD ha confirmado que la clave no existe (se ignora si ha habido altas desde 'marca') */
+    public void marcarAusente(String clave, long marca) {
+        if (altas.get() == marca) {
+            ausentes.put(clave, Boolean.TRUE);
+        }
+    }
+
+    /** Alta de una clave (llamar después de guardar) */
+    public void registrar(String clave) {
+        altas.incrementAndGet();
+        ausentes.invalidate(clave);
+    }
+
+    protected void olvidarAusentes() {
+        ausentes.invalidateAll();
+    }
+}
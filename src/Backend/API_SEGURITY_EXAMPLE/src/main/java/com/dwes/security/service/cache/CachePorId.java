@@ -0,0 +1,114 @@
+package com.dwes.security.service.cache;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Caché de lectura por id delante de un findById.
+ *
+ * Con Caffeine (W-TinyLFU, tamaño máximo y TTL) guarda las entidades ya cargadas;
+ * sin caché (backend 'hibernate' o 'none') simplemente delega en el cargador. En los
+ * dos casos mide la latencia de carga en catalogo.cache.load{cache=...}; con Caffeine
+ * además publica cache.gets{result=hit|miss}, de donde sale la tasa de aciertos.
+ *
+ * Los fallos concurrentes de un mismo id comparten una única carga, de modo que un
+ * pico de peticiones al mismo id hace un solo findById: con Caffeine lo hace ya
+ * cache.get(id, cargador); sin caché se agrupan con SingleFlight.
+ *
+ * Las entidades guardadas se comparten entre peticiones: quien vaya a modificarlas
+ * debe leerlas del repositorio, no de aquí.
+ */
+public class CachePorId<T> {
+
+    private final Cache<Long, T> cache;
+
+    private final Timer cargas;
+
+    // Sólo sin caché (hibernate/none); null con Caffeine
+    private final SingleFlight<Long, T> enVuelo;
+
+    private CachePorId(Cache<Long, T> cache, String nombre, MeterRegistry meterRegistry) {
+        this.cache = cache;
+        this.enVuelo = cache == null ? new SingleFlight<>(nombre, meterRegistry) : null;
+        this.cargas = Timer.builder("catalogo.cache.load")
+                .tag("cache", nombre)
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+    }
+
+    public static <T> CachePorId<T> caffeine(String nombre, long maxSize, Duration ttl, MeterRegistry meterRegistry) {
+        Cache<Long, T> cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "catalogo." + nombre);
+        return new CachePorId<>(cache, nombre, meterRegistry);
+    }
+
+    public static <T> CachePorId<T> sinCache(String nombre, MeterRegistry meterRegistry) {
+        return new CachePorId<>(null, nombre, meterRegistry);
+    }
+
+    /** Valor cacheado o cargado con 'cargador'; si el cargador lanza una excepción no se cachea nada */
+    public T obtener(Long id, Function<Long, T> cargador) {
+        Function<Long, T> medido = clave -> cargas.record(() -> cargador.apply(clave));
+        if (cache == null) {
+            return enVuelo.ejecutar(id, () -> medido.apply(id));
+        }
+        // cache.get agrupa las cargas concurrentes del mismo id y es atómico frente a invalidate
+        return cache.get(id, medido);
+    }
+
+    /**
+     * Valores de 'ids' que existen: los cacheados más una única carga con 'cargadorLote' para el resto.
+     *
+     * Lo cargado por lotes no se guarda en la caché: a diferencia de cache.get, un putAll
+     * no es atómico frente a un invalidar concurrente y podría dejar una versión antigua.
+     */
+    public Map<Long, T> obtenerTodos(Collection<Long> ids, Function<List<Long>, Map<Long, T>> cargadorLote) {
+        Map<Long, T> encontrados = new HashMap<>();
+        if (cache != null) {
+            encontrados.putAll(cache.getAllPresent(ids));
+        }
+        List<Long> faltan = new ArrayList<>(ids.size() - encontrados.size());
+        for (Long id : ids) {
+            if (!encontrados.containsKey(id)) {
+                faltan.add(id);
+            }
+        }
+        if (!faltan.isEmpty()) {
+            encontrados.putAll(cargadorLote.apply(faltan));
+        }
+        return encontrados;
+    }
+
+    public void invalidar(Long id) {
+        if (id == null) {
+            return;
+        }
+        if (cache != null) {
+            cache.invalidate(id);
+        } else {
+            enVuelo.olvidar(id);
+        }
+    }
+
+    public void invalidarTodo() {
+        if (cache != null) {
+            cache.invalidateAll();
+        }
+    }
+}
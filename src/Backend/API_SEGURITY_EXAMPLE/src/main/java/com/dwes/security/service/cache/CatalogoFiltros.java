@@ -0,0 +1,92 @@
+package com.dwes.security.service.cache;
+
+import java.time.Duration;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.dwes.security.repository.LibroRepository;
+import com.dwes.security.util.Isbn;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Filtros de existencia del catálogo: ISBN de libros (clave ISBN-13 normalizada, con
+ * filtro de Bloom) e ids de libros y comidas (sólo caché de ausencias: ninguna lectura
+ * por id puede saltarse la BD con un "no" del filtro, así que no compensa mantenerlo).
+ *
+ * El filtro de ISBN se construye al arrancar y se reconstruye cada
+ * catalogo.negative.rebuild-interval (el filtro de Bloom no admite borrados); los
+ * servicios registran cada alta y las claves que la BD devuelve y el filtro no tenía.
+ * Entre reconstrucciones el filtro no ve las escrituras de otras instancias ni de SQL
+ * directo, así que sólo se usa como pista donde hay un índice único detrás (ver
+ * FiltroExistencia).
+ */
+@Component
+public class CatalogoFiltros {
+
+    private static final Logger log = LoggerFactory.getLogger(CatalogoFiltros.class);
+
+    @Autowired
+    private LibroRepository libroRepository;
+
+    private final CacheAusentes libroIds;
+
+    private final FiltroExistencia libroIsbns;
+
+    private final CacheAusentes comidaIds;
+
+    public CatalogoFiltros(@Value("${catalogo.negative.expected-entries:1000000}") int entradasEsperadas,
+                           @Value("${catalogo.negative.fpp:0.01}") double fpp,
+                           @Value("${catalogo.negative.max-absent:100000}") long maxAusentes,
+                           @Value("${catalogo.negative.absent-ttl:PT5M}") Duration ttlAusentes,
+                           MeterRegistry meterRegistry) {
+        this.libroIds = new CacheAusentes("libros.id", maxAusentes, ttlAusentes, meterRegistry);
+        this.libroIsbns = new FiltroExistencia("libros.isbn", entradasEsperadas, fpp, maxAusentes, ttlAusentes, meterRegistry);
+        this.comidaIds = new CacheAusentes("comidas.id", maxAusentes, ttlAusentes, meterRegistry);
+    }
+
+    public CacheAusentes libroIds() {
+        return libroIds;
+    }
+
+    public FiltroExistencia libroIsbns() {
+        return libroIsbns;
+    }
+
+    public CacheAusentes comidaIds() {
+        return comidaIds;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void reconstruir() {
+        libroIsbns.reconstruir(isbns -> {
+            try (Stream<String> todos = libroRepository.streamIsbns()) {
+                todos.forEach(isbn -> {
+                    // Clave ISBN-13 calculada aquí: no depende de que isbn13 ya esté relleno
+                    String isbn13 = Isbn.normalizarONull(isbn);
+                    if (isbn13 != null) {
+                        isbns.accept(isbn13);
+                    }
+                });
+            }
+        });
+        log.info("Filtro de existencia de ISBN reconstruido");
+    }
+
+    @Scheduled(fixedDelayString = "${catalogo.negative.rebuild-interval:PT1H}",
+               initialDelayString = "${catalogo.negative.rebuild-interval:PT1H}")
+    @Transactional(readOnly = true)
+    public void reconstruirPeriodicamente() {
+        reconstruir();
+    }
+}
@@ -0,0 +1,105 @@
+package com.dwes.security.service.cache;
+
+import java.time.Duration;
+import java.util.function.Consumer;
+
+import com.dwes.security.util.BloomFilter;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Caché de ausencias (CacheAusentes) más un filtro de Bloom con las claves existentes.
+ *
+ * El filtro sólo ve las altas de esta instancia y lo que había en la última
+ * reconstrucción: las filas de otra instancia, del JDBC de la importación o de SQL
+ * directo no están hasta reconstruir. Por eso un "no" del filtro es sólo una pista
+ * (puedeExistir) para saltarse consultas que un índice único respalda; nunca decide
+ * un 404. Se usa para los ISBN; los ids sólo tienen la caché de ausencias.
+ *
+ * Mientras no se ha construido el filtro por primera vez todo "puede existir".
+ * Publica además catalogo.negative.hits{filtro=...,fuente=bloom} y
+ * catalogo.negative.stale{filtro=...}: claves que la BD tenía y el filtro no.
+ */
+public class FiltroExistencia extends CacheAusentes {
+
+    private final int entradasEsperadas;
+
+    private final double fpp;
+
+    // null hasta la primera reconstrucción
+    private volatile BloomFilter filtro;
+
+    // Filtro que se está reconstruyendo: las altas concurrentes se añaden también aquí
+    private volatile BloomFilter enConstruccion;
+
+    private final Counter descartadasBloom;
+
+    private final Counter desfasadas;
+
+    public FiltroExistencia(String nombre, int entradasEsperadas, double fpp,
+                            long maxAusentes, Duration ttlAusentes, MeterRegistry meterRegistry) {
+        super(nombre, maxAusentes, ttlAusentes, meterRegistry);
+        this.entradasEsperadas = entradasEsperadas;
+        this.fpp = fpp;
+        this.descartadasBloom = Counter.builder("catalogo.negative.hits")
+                .tag("filtro", nombre).tag("fuente", "bloom").register(meterRegistry);
+        this.desfasadas = Counter.builder("catalogo.negative.stale")
+                .tag("filtro", nombre).register(meterRegistry);
+    }
+
+    /**
+     * Pista: false = no está ni en el filtro ni entre las claves existentes conocidas.
+     * Puede estar desfasada (ver la clase); usar sólo donde un índice único cubra el error.
+     */
+    public boolean puedeExistir(String clave) {
+        BloomFilter actual = filtro;
+        if (actual != null && !actual.mightContain(clave)) {
+            descartadasBloom.increment();
+            return false;
+        }
+        return !ausenteConfirmado(clave);
+    }
+
+    /** La BD ha devuelto la clave: si el filtro no la tenía (alta ajena a esta instancia) se añade */
+    public void confirmarExistente(String clave) {
+        BloomFilter actual = filtro;
+        if (actual != null && !actual.mightContain(clave)) {
+            desfasadas.increment();
+            actual.put(clave);
+        }
+        BloomFilter nuevo = enConstruccion;
+        if (nuevo != null) {
+            nuevo.put(clave);
+        }
+    }
+
+    @Override
+    public void registrar(String clave) {
+        BloomFilter actual = filtro;
+        if (actual != null) {
+            actual.put(clave);
+        }
+        BloomFilter nuevo = enConstruccion;
+        if (nuevo != null) {
+            nuevo.put(clave);
+        }
+        super.registrar(clave);
+    }
+
+    /**
+     * Reconstruye el filtro con las claves que 'volcado' entregue al consumidor.
+     * Las altas registradas durante el volcado no se pierden.
+     */
+    public synchronized void reconstruir(Consumer<Consumer<String>> volcado) {
+        BloomFilter nuevo = new BloomFilter(entradasEsperadas, fpp);
+        enConstruccion = nuevo;
+        try {
+            volcado.accept(nuevo::put);
+            filtro = nuevo;
+        } finally {
+            enConstruccion = null;
+        }
+        olvidarAusentes();
+    }
+}
@@ -0,0 +1,67 @@
+package com.dwes.security.service.cache;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Agrupa cargas concurrentes de la misma clave: el primer hilo ejecuta la carga y
+ * los que llegan mientras está en curso esperan y reciben su mismo resultado (o su
+ * misma excepción). Terminada la carga la clave se libera; no guarda resultados.
+ *
+ * Publica catalogo.singleflight.coalesced{cache=...}: llamadas que no hicieron su propia carga.
+ */
+public class SingleFlight<K, V> {
+
+    private final ConcurrentHashMap<K, CompletableFuture<V>> enCurso = new ConcurrentHashMap<>();
+
+    private final Counter agrupadas;
+
+    public SingleFlight(String nombre, MeterRegistry meterRegistry) {
+        this.agrupadas = Counter.builder("catalogo.singleflight.coalesced")
+                .tag("cache", nombre)
+                .register(meterRegistry);
+    }
+
+    public V ejecutar(K clave, Supplier<V> carga) {
+        CompletableFuture<V> propia = new CompletableFuture<>();
+        CompletableFuture<V> existente = enCurso.putIfAbsent(clave, propia);
+        if (existente != null) {
+            agrupadas.increment();
+            return esperar(existente);
+        }
+        try {
+            V valor = carga.get();
+            propia.complete(valor);
+            return valor;
+        } catch (RuntimeException | Error e) {
+            propia.completeExceptionally(e);
+            throw e;
+        } finally {
+            enCurso.remove(clave, propia);
+        }
+    }
+
+    /** Las llamadas que lleguen a partir de ahora no se unirán a la carga en curso (p. ej. tras una escritura) */
+    public void olvidar(K clave) {
+        enCurso.remove(clave);
+    }
+
+    private static <V> V esperar(CompletableFuture<V> carga) {
+        try {
+            return carga.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException re) {
+                throw re;
+            }
+            if (e.getCause() instanceof Error err) {
+                throw err;
+            }
+            throw e;
+        }
+    }
+}
@@ -1,29 +1,84 @@
 package com.dwes.security.service.impl;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import com.dwes.security.dto.response.BatchResponse;
+import com.dwes.security.dto.response.CursorPage;
 import com.dwes.security.entities.Comida;
 import com.dwes.security.entities.Prestamo;
 import com.dwes.security.entities.Usuario;
 import com.dwes.security.error.exception.ComidaNotFoundException;
+import com.dwes.security.error.exception.PreconditionFailedException;
 import com.dwes.security.repository.ComidaRepository;
+import com.dwes.security.service.CatalogoVersiones;
 import com.dwes.security.service.ComidaService;
+import com.dwes.security.service.FormatoFichero;
+import com.dwes.security.service.cache.CachePorId;
+import com.dwes.security.service.cache.CatalogoFiltros;
+import com.dwes.security.service.cache.CacheAusentes;
+import com.dwes.security.service.search.ComidaSearchIndex;
+import com.fasterxml.jackson.databind.ObjectMapper;
 
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import jakarta.validation.Valid;
 
 @Service
 public class ComidasServiceImpl implements ComidaService {
 
+    // Campos que admite ?fields= (los mismos que se serializan de Comida)
+    private static final List<String> CAMPOS = List.of("id", "nombre", "paisOrigen", "version");
+
     @Autowired
     private ComidaRepository comidaRepository;
 
+    @Autowired
+    private ComidaSearchIndex comidaSearchIndex;
+
+    @Autowired
+    private CatalogoVersiones catalogoVersiones;
+
+    @Autowired
+    private CachePorId<Comida> comidaCache;
+
+    @Autowired
+    private CatalogoFiltros catalogoFiltros;
+
+    // Máximo de ids en GET ?ids=...
+    @Value("${catalogo.batch.max-ids:100}")
+    private int maxIdsPorLote;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    // Total para ?withTotal=approx; -1 hasta el primer cálculo
+    private volatile long totalAproximado = -1;
+
     @Override
     public Comida agregarComida(@Valid Comida comida) {
         // Validación a través de las anotaciones JPA/Bean Validation
-        return comidaRepository.save(comida);
+        Comida guardada = comidaRepository.save(comida);
+        catalogoFiltros.comidaIds().registrar(String.valueOf(guardada.getId()));
+        comidaSearchIndex.indexar(guardada);
+        catalogoVersiones.comidasModificadas();
+        return guardada;
     }
 
     @Override
@@ -31,23 +86,117 @@ public class ComidasServiceImpl implements ComidaService {
         return comidaRepository.findAll(pageable);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public Page<Map<String, Object>> listarComidasConCampos(Pageable pageable, Set<String> campos) {
+        return ProyeccionCampos.listar(entityManager, Comida.class, CAMPOS, campos, pageable,
+                comidaRepository::count);
+    }
+
+    @Override
+    public CursorPage<Comida> listarComidasDesde(Long after, int size) {
+        // Se pide una fila de más para saber si hay página siguiente
+        return CursorPage.of(comidaRepository.findByIdGreaterThanOrderByIdAsc(after, Limit.of(size + 1)),
+                size, Comida::getId);
+    }
+
+    @Override
+    public List<Comida> buscarComidas(String consulta, int maxDistancia, int limite) {
+        if (maxDistancia < 0 || maxDistancia > 3) {
+            throw new IllegalArgumentException("maxDistance debe estar entre 0 y 3");
+        }
+        return comidaSearchIndex.buscar(consulta, maxDistancia, Math.min(limite, 100));
+    }
+
+    @Override
+    public List<String> sugerirNombres(String prefijo, int limite) {
+        return comidaSearchIndex.sugerir(prefijo, Math.min(limite, 50));
+    }
+
+    // La transacción mantiene abierto el cursor mientras se escribe la respuesta
+    @Override
+    @Transactional(readOnly = true)
+    public long exportarComidas(OutputStream salida, FormatoFichero formato) throws IOException {
+        return ExportadorLineas.escribir(comidaRepository.streamAllOrderById(), salida, formato,
+                new String[] {"id", "nombre", "paisOrigen"},
+                comida -> new Object[] {comida.getId(), comida.getNombre(), comida.getPaisOrigen()},
+                objectMapper, entityManager);
+    }
+
+    @Override
+    public Slice<Comida> listarComidasSinTotal(Pageable pageable) {
+        return comidaRepository.findAllBy(pageable);
+    }
+
+    @Override
+    public long totalAproximadoComidas() {
+        long total = totalAproximado;
+        if (total < 0) {
+            refrescarTotalAproximado();
+            total = totalAproximado;
+        }
+        return total;
+    }
+
+    // Un único COUNT(*) por intervalo en lugar de uno por cada página servida
+    @Scheduled(fixedDelayString = "${catalogo.total.refresh-interval:PT1M}",
+               initialDelayString = "${catalogo.total.refresh-interval:PT1M}")
+    public void refrescarTotalAproximado() {
+        totalAproximado = comidaRepository.count();
+    }
+
     @Override
     public Comida obtenerComidaPorId(Long id) {
-        return comidaRepository.findById(id)
-                .orElseThrow(() -> new ComidaNotFoundException("Comida no encontrada"));
+        // Ids que la BD acaba de confirmar como inexistentes: 404 sin consulta
+        if (catalogoFiltros.comidaIds().ausenteConfirmado(String.valueOf(id))) {
+            throw ComidaNotFoundException.NO_ENCONTRADA;
+        }
+        return comidaCache.obtener(id, this::cargarComida);
+    }
+
+    @Override
+    public BatchResponse<Comida> obtenerComidasPorIds(List<Long> ids) {
+        return LecturaPorIds.leer(ids, maxIdsPorLote, catalogoFiltros.comidaIds(), comidaCache,
+                comidaRepository::findAllById, Comida::getId);
+    }
+
+    // Lectura directa de la BD: la instancia de la caché no se debe modificar
+    private Comida cargarComida(Long id) {
+        CacheAusentes ids = catalogoFiltros.comidaIds();
+        long marca = ids.marca();
+        Comida encontrado = comidaRepository.findById(id).orElseThrow(() -> {
+            ids.marcarAusente(String.valueOf(id), marca);
+            return ComidaNotFoundException.NO_ENCONTRADA;
+        });
+        return encontrado;
     }
 
     @Override
     public Comida actualizarComida(Long id, @Valid Comida detallesComida) {
-        Comida comida = obtenerComidaPorId(id);
+        return actualizarComida(id, detallesComida, null);
+    }
+
+    @Override
+    public Comida actualizarComida(Long id, @Valid Comida detallesComida, Long versionEsperada) {
+        Comida comida = cargarComida(id);
+        if (versionEsperada != null && versionEsperada != comida.getVersion()) {
+            throw new PreconditionFailedException("La comida ha cambiado desde que se leyó (If-Match no coincide)");
+        }
         comida.setNombre(detallesComida.getNombre());
         comida.setPaisOrigen(detallesComida.getPaisOrigen());
-        return comidaRepository.save(comida);
+        Comida guardada = comidaRepository.save(comida);
+        comidaCache.invalidar(id);
+        comidaSearchIndex.indexar(guardada);
+        catalogoVersiones.comidasModificadas();
+        return guardada;
     }
 
     @Override
     public void eliminarComida(Long id) {
         comidaRepository.deleteById(id);
+        comidaCache.invalidar(id);
+        comidaSearchIndex.eliminar(id);
+        catalogoVersiones.comidasModificadas();
     }
 
     /*
@@ -0,0 +1,56 @@
+package com.dwes.security.service.impl;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+import com.dwes.security.service.FormatoFichero;
+import com.dwes.security.util.Csv;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.persistence.EntityManager;
+
+/**
+ * Escribe un Stream de entidades como NDJSON o CSV, una línea por fila.
+ *
+ * Cada entidad se separa del contexto de persistencia en cuanto se ha escrito,
+ * así la memoria no crece con el tamaño de la tabla.
+ */
+final class ExportadorLineas {
+
+    private ExportadorLineas() {
+    }
+
+    static <T> long escribir(Stream<T> filas, OutputStream salida, FormatoFichero formato,
+                             String[] cabecera, Function<T, Object[]> columnas,
+                             ObjectMapper objectMapper, EntityManager entityManager) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(salida, StandardCharsets.UTF_8));
+        if (formato == FormatoFichero.CSV) {
+            writer.write(Csv.linea((Object[]) cabecera));
+            writer.write('\n');
+        }
+        long escritas = 0;
+        try (filas) {
+            Iterator<T> it = filas.iterator();
+            while (it.hasNext()) {
+                T fila = it.next();
+                if (formato == FormatoFichero.CSV) {
+                    writer.write(Csv.linea(columnas.apply(fila)));
+                } else {
+                    writer.write(objectMapper.writeValueAsString(fila));
+                }
+                writer.write('\n');
+                entityManager.detach(fila);
+                escritas++;
+            }
+        }
+        writer.flush();
+        return escritas;
+    }
+}
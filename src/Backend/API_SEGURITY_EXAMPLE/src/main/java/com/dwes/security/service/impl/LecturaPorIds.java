@@ -0,0 +1,59 @@
+package com.dwes.security.service.impl;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import com.dwes.security.dto.response.BatchResponse;
+import com.dwes.security.service.cache.CachePorId;
+import com.dwes.security.service.cache.CacheAusentes;
+
+/**
+ * Lectura de varios ids con una sola consulta IN.
+ *
+ * Los ids con ausencia ya confirmada por la BD no se consultan, los que están en la
+ * caché por id salen de ella y el resto se pide de una vez a 'buscarTodos' (findAllById).
+ * Los ids repetidos se devuelven una sola vez, en la posición de su primera aparición.
+ */
+final class LecturaPorIds {
+
+    private LecturaPorIds() {
+    }
+
+    static <T> BatchResponse<T> leer(List<Long> ids, int maxIds, CacheAusentes ausentes, CachePorId<T> cache,
+                                     Function<List<Long>, List<T>> buscarTodos, Function<T, Long> id) {
+        if (ids.isEmpty() || ids.contains(null)) {
+            throw new IllegalArgumentException("ids debe ser una lista de ids separados por comas");
+        }
+        Set<Long> pedidos = new LinkedHashSet<>(ids);
+        if (pedidos.size() > maxIds) {
+            throw new IllegalArgumentException("Como máximo " + maxIds + " ids por petición");
+        }
+        List<Long> candidatos = new ArrayList<>(pedidos.size());
+        for (Long pedido : pedidos) {
+            if (!ausentes.ausenteConfirmado(String.valueOf(pedido))) {
+                candidatos.add(pedido);
+            }
+        }
+        long marca = ausentes.marca();
+        Map<Long, T> encontrados = cache.obtenerTodos(candidatos, faltan -> buscarTodos.apply(faltan).stream()
+                .collect(Collectors.toMap(id, Function.identity())));
+
+        List<T> content = new ArrayList<>(encontrados.size());
+        List<Long> missing = new ArrayList<>();
+        for (Long pedido : pedidos) {
+            T valor = encontrados.get(pedido);
+            if (valor != null) {
+                content.add(valor);
+            } else {
+                missing.add(pedido);
+                ausentes.marcarAusente(String.valueOf(pedido), marca);
+            }
+        }
+        return new BatchResponse<>(content, missing);
+    }
+}
@@ -0,0 +1,266 @@
+package com.dwes.security.service.impl;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.dwes.security.dto.response.BulkImportResponse;
+import com.dwes.security.entities.Libro;
+import com.dwes.security.service.CatalogoVersiones;
+import com.dwes.security.service.FormatoFichero;
+import com.dwes.security.service.LibroImportService;
+import com.dwes.security.service.cache.CatalogoFiltros;
+import com.dwes.security.service.search.LibroSearchIndex;
+import com.dwes.security.util.Csv;
+import com.dwes.security.util.Isbn;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+
+/**
+ * Importación masiva de libros.
+ *
+ * Libro usa GenerationType.IDENTITY, lo que impide a Hibernate agrupar los INSERT;
+ * aquí se escribe directamente con JdbcTemplate.batchUpdate y el id lo sigue
+ * asignando la columna AUTO_INCREMENT. Con rewriteBatchedStatements=true en la URL
+ * de MySQL cada lote viaja como un único INSERT multi-fila.
+ *
+ * Los ids se leen después por isbn13 (índice único) para indexar y registrar sólo
+ * las filas insertadas: el coste depende del fichero, no del tamaño del catálogo.
+ */
+@Service
+public class LibroImportServiceImpl implements LibroImportService {
+
+    private static final Logger log = LoggerFactory.getLogger(LibroImportServiceImpl.class);
+
+    private static final String INSERT = "insert into libros (titulo, autor, isbn, isbn13, version) values (?, ?, ?, ?, 0)";
+
+    // Cabecera opcional de un CSV (sin distinguir mayúsculas ni espacios alrededor)
+    private static final List<String> CABECERA_CSV = List.of("titulo", "autor", "isbn");
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private Validator validator;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private LibroSearchIndex libroSearchIndex;
+
+    @Autowired
+    private CatalogoVersiones catalogoVersiones;
+
+    @Autowired
+    private CatalogoFiltros catalogoFiltros;
+
+    @Value("${catalogo.import.batch-size:1000}")
+    private int batchSize;
+
+    // Máximo de errores devueltos en la respuesta (el contador 'fallidas' sigue siendo exacto)
+    @Value("${catalogo.import.max-errors:1000}")
+    private int maxErrores;
+
+    /** Fila pendiente de insertar junto con su línea en el fichero */
+    private record Fila(long linea, Libro libro) {
+    }
+
+    @Override
+    public BulkImportResponse importarLibros(InputStream entrada, FormatoFichero formato) throws IOException {
+        BulkImportResponse respuesta = new BulkImportResponse();
+        // ISBN ya vistos en este fichero: un duplicado interno haría fallar el lote entero
+        Set<String> isbnVistos = new HashSet<>();
+        List<Fila> lote = new ArrayList<>(batchSize);
+        long inicio = System.nanoTime();
+
+        BufferedReader reader = new BufferedReader(new InputStreamReader(entrada, StandardCharsets.UTF_8));
+        String linea;
+        long numero = 0;
+        while ((linea = reader.readLine()) != null) {
+            numero++;
+            if (linea.isBlank() || (numero == 1 && formato == FormatoFichero.CSV && esCabecera(linea))) {
+                continue;
+            }
+            respuesta.setProcesadas(respuesta.getProcesadas() + 1);
+            try {
+                Libro libro = formato == FormatoFichero.CSV ? desdeCsv(linea) : desdeJson(linea);
+                String error = validar(libro);
+                if (error == null) {
+                    // Validado por @Pattern: tiene forma de ISBN-10/13
+                    libro.setIsbn13(Isbn.normalizar(libro.getIsbn()));
+                }
+                if (error == null && !isbnVistos.add(libro.getIsbn13())) {
+                    error = "ISBN repetido en el fichero: " + libro.getIsbn();
+                }
+                if (error != null) {
+                    registrarError(respuesta, numero, error);
+                    continue;
+                }
+                lote.add(new Fila(numero, libro));
+            } catch (IllegalArgumentException e) {
+                registrarError(respuesta, numero, e.getMessage());
+                continue;
+            }
+            if (lote.size() >= batchSize) {
+                volcar(lote, respuesta);
+            }
+        }
+        volcar(lote, respuesta);
+
+        if (respuesta.getInsertadas() > 0) {
+            catalogoVersiones.librosModificados();
+        }
+        log.info("Importación de libros: {} procesadas, {} insertadas, {} fallidas en {} ms",
+                respuesta.getProcesadas(), respuesta.getInsertadas(), respuesta.getFallidas(),
+                (System.nanoTime() - inicio) / 1_000_000);
+        return respuesta;
+    }
+
+    /** Inserta el lote en una transacción; si falla (p. ej. ISBN ya existente) reintenta fila a fila */
+    private void volcar(List<Fila> lote, BulkImportResponse respuesta) {
+        if (lote.isEmpty()) {
+            return;
+        }
+        Set<String> existentes = isbnExistentes(lote);
+        List<Fila> nuevas = new ArrayList<>(lote.size());
+        for (Fila fila : lote) {
+            if (existentes.contains(fila.libro().getIsbn13())) {
+                registrarError(respuesta, fila.linea(), "Ya existe un libro con ISBN " + fila.libro().getIsbn());
+            } else {
+                nuevas.add(fila);
+            }
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(INSERT, nuevas, nuevas.size(),
+                    (ps, fila) -> {
+                        ps.setString(1, fila.libro().getTitulo());
+                        ps.setString(2, fila.libro().getAutor());
+                        ps.setString(3, fila.libro().getIsbn());
+                        ps.setString(4, fila.libro().getIsbn13());
+                    }));
+            respuesta.setInsertadas(respuesta.getInsertadas() + nuevas.size());
+            registrarInsertadas(nuevas.stream().map(Fila::libro).toList());
+        } catch (DataAccessException e) {
+            // Otro proceso ha insertado alguno de estos ISBN entre la comprobación y el lote
+            List<Libro> insertados = new ArrayList<>(nuevas.size());
+            for (Fila fila : nuevas) {
+                try {
+                    jdbcTemplate.update(INSERT, fila.libro().getTitulo(), fila.libro().getAutor(),
+                            fila.libro().getIsbn(), fila.libro().getIsbn13());
+                    respuesta.setInsertadas(respuesta.getInsertadas() + 1);
+                    insertados.add(fila.libro());
+                } catch (DataAccessException ex) {
+                    registrarError(respuesta, fila.linea(), "No se pudo insertar: " + ex.getMostSpecificCause().getMessage());
+                }
+            }
+            registrarInsertadas(insertados);
+        }
+        lote.clear();
+    }
+
+    /** Lee los ids asignados (por isbn13) y da de alta los libros en el índice de búsqueda y los filtros */
+    private void registrarInsertadas(List<Libro> insertados) {
+        if (insertados.isEmpty()) {
+            return;
+        }
+        Map<String, Libro> porIsbn13 = new HashMap<>();
+        insertados.forEach(libro -> porIsbn13.put(libro.getIsbn13(), libro));
+        String marcas = String.join(",", Collections.nCopies(porIsbn13.size(), "?"));
+        jdbcTemplate.query("select id, isbn13 from libros where isbn13 in (" + marcas + ")", rs -> {
+            porIsbn13.get(rs.getString(2)).setId(rs.getLong(1));
+        }, porIsbn13.keySet().toArray());
+        for (Libro libro : insertados) {
+            libro.setVersion(0);
+            catalogoFiltros.libroIsbns().registrar(libro.getIsbn13());
+            catalogoFiltros.libroIds().registrar(String.valueOf(libro.getId()));
+        }
+        libroSearchIndex.indexarTodos(insertados);
+        // Cada lote confirmado ya es visible en los listados: no esperar al final
+        catalogoVersiones.librosModificados();
+    }
+
+    private Set<String> isbnExistentes(List<Fila> lote) {
+        // Con el filtro de ISBN un catálogo nuevo no hace ninguna consulta de comprobación
+        List<Fila> dudosas = lote.stream()
+                .filter(fila -> catalogoFiltros.libroIsbns().puedeExistir(fila.libro().getIsbn13()))
+                .toList();
+        if (dudosas.isEmpty()) {
+            return Set.of();
+        }
+        String marcas = String.join(",", Collections.nCopies(dudosas.size(), "?"));
+        Object[] isbns = dudosas.stream().map(fila -> fila.libro().getIsbn13()).toArray();
+        return new HashSet<>(jdbcTemplate.queryForList(
+                "select isbn13 from libros where isbn13 in (" + marcas + ")", String.class, isbns));
+    }
+
+    private String validar(Libro libro) {
+        Set<ConstraintViolation<Libro>> violaciones = validator.validate(libro);
+        if (violaciones.isEmpty()) {
+            return null;
+        }
+        return violaciones.stream()
+                .map(ConstraintViolation::getMessage)
+                .sorted()
+                .collect(Collectors.joining("; "));
+    }
+
+    private void registrarError(BulkImportResponse respuesta, long linea, String mensaje) {
+        respuesta.setFallidas(respuesta.getFallidas() + 1);
+        if (respuesta.getErrores().size() < maxErrores) {
+            respuesta.getErrores().add(new BulkImportResponse.ErrorFila(linea, mensaje));
+        }
+    }
+
+    private Libro desdeJson(String linea) {
+        try {
+            Libro libro = objectMapper.readValue(linea, Libro.class);
+            libro.setId(null);
+            return libro;
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("JSON no válido: " + e.getOriginalMessage());
+        }
+    }
+
+    // Toda la línea, no sólo el principio: un libro cuyo título empiece por "titulo" es un dato
+    private static boolean esCabecera(String linea) {
+        return Csv.parsearLinea(linea).stream().map(campo -> campo.trim().toLowerCase()).toList().equals(CABECERA_CSV);
+    }
+
+    private static Libro desdeCsv(String linea) {
+        List<String> campos = Csv.parsearLinea(linea);
+        if (campos.size() != 3) {
+            throw new IllegalArgumentException("Se esperaban 3 columnas (titulo,autor,isbn) y hay " + campos.size());
+        }
+        Libro libro = new Libro();
+        libro.setTitulo(campos.get(0));
+        libro.setAutor(campos.get(1));
+        libro.setIsbn(campos.get(2));
+        return libro;
+    }
+}
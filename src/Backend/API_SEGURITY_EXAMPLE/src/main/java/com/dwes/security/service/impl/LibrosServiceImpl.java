@@ -1,53 +1,229 @@
 package com.dwes.security.service.impl;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import com.dwes.security.dto.response.BatchResponse;
+import com.dwes.security.dto.response.CursorPage;
 import com.dwes.security.entities.Libro;
 import com.dwes.security.entities.Prestamo;
 import com.dwes.security.entities.Usuario;
+import com.dwes.security.error.exception.IsbnAlreadyExistsException;
 import com.dwes.security.error.exception.LibroNotFoundException;
+import com.dwes.security.error.exception.PreconditionFailedException;
 import com.dwes.security.repository.LibroRepository;
+import com.dwes.security.service.CatalogoVersiones;
+import com.dwes.security.service.FormatoFichero;
 import com.dwes.security.service.LibrosService;
+import com.dwes.security.service.cache.CachePorId;
+import com.dwes.security.service.cache.CatalogoFiltros;
+import com.dwes.security.service.cache.CacheAusentes;
+import com.dwes.security.service.cache.FiltroExistencia;
+import com.dwes.security.service.search.LibroSearchIndex;
+import com.dwes.security.util.Isbn;
+import com.fasterxml.jackson.databind.ObjectMapper;
 
-
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import jakarta.validation.Valid;
 
 @Service
 public class LibrosServiceImpl implements LibrosService {
 
+    private static final Logger log = LoggerFactory.getLogger(LibrosServiceImpl.class);
+
+    // Máximo de ISBN por comprobación y de parámetros por cada IN
+    private static final int MAX_ISBNS = 1000;
+    private static final int ISBNS_POR_CONSULTA = 500;
+
+    // Filas anteriores a la columna isbn13 (ddl-auto=update la añade vacía)
+    private static final String PENDIENTES_ISBN13 =
+            "select id, isbn from libros where isbn13 is null and id > ? order by id limit 500";
+    private static final String COMPLETAR_ISBN13 = "update libros set isbn13 = ? where id = ? and isbn13 is null";
+
+    // Campos que admite ?fields= (los mismos que se serializan de Libro)
+    private static final List<String> CAMPOS = List.of("id", "titulo", "autor", "isbn", "version");
 
     @Autowired
     private LibroRepository libroRepository;
+
+    @Autowired
+    private LibroSearchIndex libroSearchIndex;
+
+    @Autowired
+    private CatalogoVersiones catalogoVersiones;
+
+    @Autowired
+    private CachePorId<Libro> libroCache;
+
+    @Autowired
+    private CatalogoFiltros catalogoFiltros;
+
+    // Máximo de ids en GET ?ids=...
+    @Value("${catalogo.batch.max-ids:100}")
+    private int maxIdsPorLote;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    // Total para ?withTotal=approx; -1 hasta el primer cálculo
+    private volatile long totalAproximado = -1;
  
 
     @Override
     public Libro agregarLibro(@Valid Libro libro) {
+        // Duplicado por la clave normalizada antes de insertar; el índice único cubre las carreras
+        String isbn13 = Isbn.normalizar(libro.getIsbn());
+        if (catalogoFiltros.libroIsbns().puedeExistir(isbn13) && libroRepository.existsByIsbn13(isbn13)) {
+            throw new IsbnAlreadyExistsException("Ya existe un libro con ISBN " + libro.getIsbn());
+        }
         // Aquí se lanzará una excepción si el libro no es válido
-        return libroRepository.save(libro);
+        Libro guardado;
+        try {
+            guardado = libroRepository.save(libro);
+        } catch (DataIntegrityViolationException e) {
+            // El filtro no conocía el ISBN (alta de otra instancia o de SQL directo): lo resuelve el índice
+            if (libroRepository.existsByIsbn13(isbn13)) {
+                throw new IsbnAlreadyExistsException("Ya existe un libro con ISBN " + libro.getIsbn());
+            }
+            throw e;
+        }
+        catalogoFiltros.libroIds().registrar(String.valueOf(guardado.getId()));
+        catalogoFiltros.libroIsbns().registrar(guardado.getIsbn13());
+        libroSearchIndex.indexar(guardado);
+        catalogoVersiones.librosModificados();
+        return guardado;
     }
 
     @Override
     public Libro obtenerLibroPorId(Long id) {
-        return libroRepository.findById(id)
-                .orElseThrow(() -> new LibroNotFoundException("Libro no encontrado"));
+        // Ids que la BD acaba de confirmar como inexistentes: 404 sin consulta
+        if (catalogoFiltros.libroIds().ausenteConfirmado(String.valueOf(id))) {
+            throw LibroNotFoundException.NO_ENCONTRADO;
+        }
+        return libroCache.obtener(id, this::cargarLibro);
+    }
+
+    @Override
+    public Libro obtenerLibroPorIsbn(String isbn) {
+        String isbn13 = Isbn.normalizar(isbn);
+        FiltroExistencia isbns = catalogoFiltros.libroIsbns();
+        if (isbns.ausenteConfirmado(isbn13)) {
+            throw LibroNotFoundException.NO_ENCONTRADO;
+        }
+        // El índice único resuelve el id y el libro sale de la caché por id
+        long marca = isbns.marca();
+        Long id = libroRepository.findIdByIsbn13(isbn13).orElseThrow(() -> {
+            isbns.marcarAusente(isbn13, marca);
+            return LibroNotFoundException.NO_ENCONTRADO;
+        });
+        isbns.confirmarExistente(isbn13);
+        return obtenerLibroPorId(id);
+    }
+
+    @Override
+    public Map<String, Boolean> existenIsbns(List<String> isbns) {
+        if (isbns.size() > MAX_ISBNS) {
+            throw new IllegalArgumentException("Como máximo " + MAX_ISBNS + " ISBN por petición");
+        }
+        // Un ISBN sin forma válida no puede estar en el catálogo: false para él, no 400 para todo el lote
+        Map<String, String> claves = new LinkedHashMap<>();
+        for (String isbn : isbns) {
+            claves.put(isbn, Isbn.normalizarONull(isbn));
+        }
+        // Sólo se ahorran las claves con ausencia ya confirmada por la BD: el filtro de Bloom
+        // puede ir por detrás de la tabla y aquí no hay índice que corrija un "no" erróneo
+        List<String> dudosas = new ArrayList<>(new HashSet<>(claves.values()));
+        dudosas.removeIf(isbn13 -> isbn13 == null || catalogoFiltros.libroIsbns().ausenteConfirmado(isbn13));
+        Set<String> existentes = new HashSet<>();
+        for (int i = 0; i < dudosas.size(); i += ISBNS_POR_CONSULTA) {
+            existentes.addAll(libroRepository.findIsbn13Existentes(
+                    dudosas.subList(i, Math.min(i + ISBNS_POR_CONSULTA, dudosas.size()))));
+        }
+        Map<String, Boolean> respuesta = new LinkedHashMap<>();
+        claves.forEach((isbn, isbn13) -> respuesta.put(isbn, existentes.contains(isbn13)));
+        return respuesta;
+    }
+
+    @Override
+    public BatchResponse<Libro> obtenerLibrosPorIds(List<Long> ids) {
+        return LecturaPorIds.leer(ids, maxIdsPorLote, catalogoFiltros.libroIds(), libroCache,
+                libroRepository::findAllById, Libro::getId);
+    }
+
+    // Lectura directa de la BD: la instancia de la caché no se debe modificar
+    private Libro cargarLibro(Long id) {
+        CacheAusentes ids = catalogoFiltros.libroIds();
+        long marca = ids.marca();
+        Libro encontrado = libroRepository.findById(id).orElseThrow(() -> {
+            ids.marcarAusente(String.valueOf(id), marca);
+            return LibroNotFoundException.NO_ENCONTRADO;
+        });
+        return encontrado;
     }
 
     @Override
     public Libro actualizarLibro(Long id, @Valid Libro detallesLibro) {
-        Libro libro = obtenerLibroPorId(id);
+        return actualizarLibro(id, detallesLibro, null);
+    }
+
+    @Override
+    public Libro actualizarLibro(Long id, @Valid Libro detallesLibro, Long versionEsperada) {
+        Libro libro = cargarLibro(id);
+        if (versionEsperada != null && versionEsperada != libro.getVersion()) {
+            throw new PreconditionFailedException("El libro ha cambiado desde que se leyó (If-Match no coincide)");
+        }
+        String isbn13 = Isbn.normalizar(detallesLibro.getIsbn());
+        if (!isbn13.equals(libro.getIsbn13()) && libroRepository.existsByIsbn13AndIdNot(isbn13, id)) {
+            throw new IsbnAlreadyExistsException("Ya existe otro libro con ISBN " + detallesLibro.getIsbn());
+        }
         libro.setTitulo(detallesLibro.getTitulo());
         libro.setAutor(detallesLibro.getAutor());
         libro.setIsbn(detallesLibro.getIsbn());
         // Actualiza otros campos necesarios
-        return libroRepository.save(libro);
+        Libro guardado = libroRepository.save(libro);
+        libroCache.invalidar(id);
+        catalogoFiltros.libroIsbns().registrar(guardado.getIsbn13());
+        libroSearchIndex.indexar(guardado);
+        catalogoVersiones.librosModificados();
+        return guardado;
     }
 
     @Override
     public void eliminarLibro(Long id) {
         libroRepository.deleteById(id);
+        libroCache.invalidar(id);
+        libroSearchIndex.eliminar(id);
+        catalogoVersiones.librosModificados();
     }
 
 
@@ -68,6 +244,103 @@ public class LibrosServiceImpl implements LibrosService {
         return libroRepository.findAll(pageable);
 	}
 
+	@Override
+	@Transactional(readOnly = true)
+	public Page<Map<String, Object>> listarLibrosConCampos(Pageable pageable, Set<String> campos) {
+		return ProyeccionCampos.listar(entityManager, Libro.class, CAMPOS, campos, pageable,
+				libroRepository::count);
+	}
+
+	@Override
+	public CursorPage<Libro> listarLibrosDesde(Long after, int size) {
+		// Se pide una fila de más para saber si hay página siguiente
+		return CursorPage.of(libroRepository.findByIdGreaterThanOrderByIdAsc(after, Limit.of(size + 1)),
+				size, Libro::getId);
+	}
+
+	@Override
+	public List<Libro> buscarLibros(String consulta, int limite) {
+		return libroSearchIndex.buscar(consulta, Math.min(limite, 100));
+	}
+
+	@Override
+	public List<String> sugerirTitulos(String prefijo, int limite) {
+		return libroSearchIndex.sugerirTitulos(prefijo, Math.min(limite, 50));
+	}
+
+	// La transacción mantiene abierto el cursor mientras se escribe la respuesta
+	@Override
+	@Transactional(readOnly = true)
+	public long exportarLibros(OutputStream salida, FormatoFichero formato) throws IOException {
+		return ExportadorLineas.escribir(libroRepository.streamAllOrderById(), salida, formato,
+				new String[] {"id", "titulo", "autor", "isbn"},
+				libro -> new Object[] {libro.getId(), libro.getTitulo(), libro.getAutor(), libro.getIsbn()},
+				objectMapper, entityManager);
+	}
+
+	@Override
+	public Slice<Libro> listarLibrosSinTotal(Pageable pageable) {
+		return libroRepository.findAllBy(pageable);
+	}
+
+	@Override
+	public long totalAproximadoLibros() {
+		long total = totalAproximado;
+		if (total < 0) {
+			refrescarTotalAproximado();
+			total = totalAproximado;
+		}
+		return total;
+	}
+
+	// Un único COUNT(*) por intervalo en lugar de uno por cada página servida
+	@Scheduled(fixedDelayString = "${catalogo.total.refresh-interval:PT1M}",
+	           initialDelayString = "${catalogo.total.refresh-interval:PT1M}")
+	public void refrescarTotalAproximado() {
+		totalAproximado = libroRepository.count();
+	}
+
+	// Rellena isbn13 en las filas creadas antes de existir la columna (una sola vez por fila).
+	// UPDATE directo por JDBC: no pasa por la entidad, así que @Version no cambia (ni los ETag de
+	// esos libros) y sólo se leen id e isbn de las filas pendientes, por lotes y por keyset.
+	@EventListener(ApplicationReadyEvent.class)
+	public void completarIsbn13() {
+		long ultimoId = 0;
+		int completados = 0;
+		List<Object[]> pendientes;
+		while (!(pendientes = jdbcTemplate.query(PENDIENTES_ISBN13,
+				(rs, fila) -> new Object[] {Isbn.normalizarONull(rs.getString(2)), rs.getLong(1)}, ultimoId)).isEmpty()) {
+			ultimoId = (Long) pendientes.get(pendientes.size() - 1)[1];
+			// Los ISBN sin forma válida se quedan sin clave
+			pendientes.removeIf(fila -> fila[0] == null);
+			completados += rellenarIsbn13(pendientes);
+		}
+		if (completados > 0) {
+			// Las entidades cacheadas antes del UPDATE no tienen isbn13
+			libroCache.invalidarTodo();
+			log.info("isbn13 rellenado en {} libros", completados);
+		}
+	}
+
+	private int rellenarIsbn13(List<Object[]> filas) {
+		try {
+			// Con rewriteBatchedStatements el driver puede devolver SUCCESS_NO_INFO (-2) por fila
+			return (int) Arrays.stream(jdbcTemplate.batchUpdate(COMPLETAR_ISBN13, filas)).filter(n -> n != 0).count();
+		} catch (DataIntegrityViolationException e) {
+			// Algún duplicado en el lote: fila a fila para dejar sin clave sólo ese
+			int completados = 0;
+			for (Object[] fila : filas) {
+				try {
+					completados += jdbcTemplate.update(COMPLETAR_ISBN13, fila);
+				} catch (DataIntegrityViolationException ex) {
+					// ISBN-10 y su ISBN-13 guardados como dos libros distintos: se deja sin clave
+					log.warn("Libro {}: ISBN-13 {} duplicado con otro libro, isbn13 sin rellenar", fila[1], fila[0]);
+				}
+			}
+			return completados;
+		}
+	}
+
 	@Override
 	public Page<Libro> listarLibrosPrestadosPorUsuario(Integer usuarioId, Pageable pageable) {
 		// TODO Auto-generated method stub
@@ -0,0 +1,71 @@
+package com.dwes.security.service.impl;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.LongSupplier;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.support.PageableExecutionUtils;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TupleElement;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+
+/**
+ * Listados con ?fields=: SELECT sólo de las columnas pedidas (consulta de tuplas,
+ * sin cargar entidades) y cada fila como un mapa campo -> valor.
+ *
+ * 'id' se incluye siempre y los campos salen en el orden de 'permitidos', no en el
+ * de la petición, para que la forma de la respuesta no dependa de cómo se escriba.
+ */
+final class ProyeccionCampos {
+
+    private ProyeccionCampos() {
+    }
+
+    static Page<Map<String, Object>> listar(EntityManager entityManager, Class<?> entidad, List<String> permitidos,
+                                            Set<String> campos, Pageable pageable, LongSupplier total) {
+        if (campos.isEmpty()) {
+            throw new IllegalArgumentException("fields debe indicar al menos un campo");
+        }
+        for (String campo : campos) {
+            if (!permitidos.contains(campo)) {
+                throw new IllegalArgumentException("Campo no válido en fields: " + campo + " (permitidos: "
+                        + String.join(",", permitidos) + ")");
+            }
+        }
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> consulta = cb.createTupleQuery();
+        Root<?> raiz = consulta.from(entidad);
+        List<Selection<?>> columnas = new ArrayList<>();
+        for (String campo : permitidos) {
+            if (campo.equals("id") || campos.contains(campo)) {
+                columnas.add(raiz.get(campo).alias(campo));
+            }
+        }
+        consulta.multiselect(columnas).orderBy(cb.asc(raiz.get("id")));
+
+        List<Tuple> tuplas = entityManager.createQuery(consulta)
+                .setFirstResult((int) pageable.getOffset())
+                .setMaxResults(pageable.getPageSize())
+                .getResultList();
+        List<Map<String, Object>> filas = new ArrayList<>(tuplas.size());
+        for (Tuple tupla : tuplas) {
+            Map<String, Object> fila = new LinkedHashMap<>();
+            for (TupleElement<?> elemento : tupla.getElements()) {
+                fila.put(elemento.getAlias(), tupla.get(elemento));
+            }
+            filas.add(fila);
+        }
+        // Sin COUNT(*) cuando la página ya indica el total (primera página incompleta)
+        return PageableExecutionUtils.getPage(filas, pageable, total);
+    }
+}
@@ -0,0 +1,89 @@
+package com.dwes.security.service.search;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import com.dwes.security.entities.Comida;
+import com.dwes.security.repository.ComidaRepository;
+
+/**
+ * Estructuras de búsqueda en memoria sobre las comidas: autocompletado por nombre
+ * y búsqueda aproximada por trigramas (tolera erratas).
+ *
+ * Se construye al arrancar y ComidasServiceImpl la mantiene en cada escritura.
+ */
+@Component
+public class ComidaSearchIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(ComidaSearchIndex.class);
+
+    @Autowired
+    private ComidaRepository comidaRepository;
+
+    private final PrefixSuggester nombres = new PrefixSuggester();
+
+    private final TrigramIndex trigramas = new TrigramIndex();
+
+    // Copias de las comidas indexadas: la búsqueda responde sin ir a MySQL
+    private final Map<Long, Comida> comidas = new ConcurrentHashMap<>();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void reconstruir() {
+        Map<Long, String> textos = new HashMap<>();
+        Map<Long, Comida> copias = new HashMap<>();
+        for (Comida comida : comidaRepository.findAll()) {
+            textos.put(comida.getId(), comida.getNombre());
+            copias.put(comida.getId(), copia(comida));
+        }
+        nombres.reconstruir(textos);
+        trigramas.reconstruir(textos);
+        comidas.keySet().retainAll(copias.keySet());
+        comidas.putAll(copias);
+        log.info("Índice de búsqueda de comidas construido: {} nombres", nombres.size());
+    }
+
+    public void indexar(Comida comida) {
+        nombres.poner(comida.getId(), comida.getNombre());
+        comidas.put(comida.getId(), copia(comida));
+        trigramas.poner(comida.getId(), comida.getNombre());
+    }
+
+    public void eliminar(Long id) {
+        nombres.quitar(id);
+        trigramas.quitar(id);
+        comidas.remove(id);
+    }
+
+    public List<String> sugerir(String prefijo, int limite) {
+        return nombres.sugerir(prefijo, limite);
+    }
+
+    /** Comidas cuyo nombre (o parte de él) está a distancia de edición <= maxDistancia de la consulta */
+    public List<Comida> buscar(String consulta, int maxDistancia, int limite) {
+        List<Comida> resultado = new ArrayList<>();
+        for (TrigramIndex.Match match : trigramas.buscar(consulta, maxDistancia, limite)) {
+            Comida comida = comidas.get(match.id());
+            if (comida != null) {
+                resultado.add(comida);
+            }
+        }
+        return resultado;
+    }
+
+    private static Comida copia(Comida comida) {
+        Comida copia = new Comida(comida.getNombre(), comida.getPaisOrigen());
+        copia.setId(comida.getId());
+        copia.setVersion(comida.getVersion());
+        return copia;
+    }
+}
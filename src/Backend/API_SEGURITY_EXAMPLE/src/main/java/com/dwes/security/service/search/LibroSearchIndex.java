@@ -0,0 +1,223 @@
+package com.dwes.security.service.search;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import com.dwes.security.entities.Libro;
+import com.dwes.security.repository.LibroRepository;
+
+/**
+ * Índice invertido en memoria sobre titulo y autor de los libros.
+ *
+ * Se construye al arrancar (después de los CommandLineRunner, p. ej. el perfil demo)
+ * y LibrosServiceImpl lo mantiene al crear, actualizar o borrar libros, así que una
+ * búsqueda nunca consulta la tabla. Una reconstrucción lee la tabla sin bloquear
+ * las búsquedas y sustituye el índice de una vez, repitiendo encima las escrituras
+ * que hayan llegado mientras tanto. Ranking TF-IDF: cada aparición en el título
+ * pesa el doble que en el autor y los términos raros puntúan más que los comunes.
+ */
+@Component
+public class LibroSearchIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(LibroSearchIndex.class);
+
+    private static final int PESO_TITULO = 2;
+    private static final int PESO_AUTOR = 1;
+
+    @Autowired
+    private LibroRepository libroRepository;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Índice vigente; una reconstrucción prepara otro aparte y lo sustituye de una vez
+    private Indice indice = new Indice();
+
+    // Escrituras llegadas durante una reconstrucción (null si no hay ninguna en curso):
+    // se repiten sobre el índice nuevo, que se construye con una lectura anterior a ellas
+    private List<Consumer<Indice>> pendientes;
+
+    // Autocompletado de títulos (sólo cadenas, sin copias de los libros)
+    private final PrefixSuggester titulos = new PrefixSuggester();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void reconstruir() {
+        lock.writeLock().lock();
+        try {
+            pendientes = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        Indice nuevo = new Indice();
+        try {
+            libroRepository.findAll().forEach(libro -> nuevo.indexar(copiar(libro)));
+        } catch (RuntimeException e) {
+            lock.writeLock().lock();
+            try {
+                pendientes = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            throw e;
+        }
+        lock.writeLock().lock();
+        try {
+            pendientes.forEach(escritura -> escritura.accept(nuevo));
+            pendientes = null;
+            indice = nuevo;
+            // Con el lock tomado: las escrituras siguientes llegan al suggester después de esto
+            Map<Long, String> textos = new HashMap<>();
+            nuevo.libros.forEach((id, libro) -> textos.put(id, libro.getTitulo()));
+            titulos.reconstruir(textos);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Índice de búsqueda de libros construido: {} libros, {} términos",
+                nuevo.libros.size(), nuevo.postings.size());
+    }
+
+    /** Añade o reemplaza el libro en el índice */
+    public void indexar(Libro libro) {
+        Libro copia = copiar(libro);
+        escribir(i -> i.indexar(copia));
+        titulos.poner(libro.getId(), libro.getTitulo());
+    }
+
+    /** Como indexar, para un lote (importación): un solo write lock y una sola instantánea de títulos */
+    public void indexarTodos(List<Libro> nuevos) {
+        List<Libro> copias = nuevos.stream().map(LibroSearchIndex::copiar).toList();
+        escribir(i -> copias.forEach(i::indexar));
+        Map<Long, String> textos = new HashMap<>();
+        copias.forEach(libro -> textos.put(libro.getId(), libro.getTitulo()));
+        titulos.ponerTodos(textos);
+    }
+
+    public void eliminar(Long id) {
+        escribir(i -> i.eliminar(id));
+        titulos.quitar(id);
+    }
+
+    /** Títulos que empiezan por 'prefijo' (autocompletado) */
+    public List<String> sugerirTitulos(String prefijo, int limite) {
+        return titulos.sugerir(prefijo, limite);
+    }
+
+    /**
+     * Libros que contienen alguno de los términos de 'consulta', ordenados por relevancia
+     * (a igualdad, por id). Los libros que contienen todos los términos quedan primero
+     * porque suman la puntuación de cada uno.
+     */
+    public List<Libro> buscar(String consulta, int limite) {
+        List<String> terminos = new ArrayList<>(new LinkedHashSet<>(TextNormalizer.tokenizar(consulta)));
+        if (terminos.isEmpty() || limite < 1) {
+            return List.of();
+        }
+        lock.readLock().lock();
+        try {
+            int totalLibros = indice.libros.size();
+            Map<Long, Double> puntuaciones = new HashMap<>();
+            for (String termino : terminos) {
+                Map<Long, Integer> docs = indice.postings.get(termino);
+                if (docs == null) {
+                    continue;
+                }
+                double idf = Math.log(1.0 + (double) totalLibros / docs.size());
+                docs.forEach((id, tf) -> puntuaciones.merge(id, (1.0 + Math.log(tf)) * idf, Double::sum));
+            }
+            return puntuaciones.entrySet().stream()
+                    .sorted(Map.Entry.<Long, Double>comparingByValue(Comparator.reverseOrder())
+                            .thenComparing(Map.Entry.comparingByKey()))
+                    .limit(limite)
+                    .map(e -> copiar(indice.libros.get(e.getKey())))
+                    .toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return indice.libros.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void escribir(Consumer<Indice> escritura) {
+        lock.writeLock().lock();
+        try {
+            escritura.accept(indice);
+            if (pendientes != null) {
+                pendientes.add(escritura);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /** Estructuras del índice; sólo se modifican con el write lock (o antes de publicarlas) */
+    private static final class Indice {
+        // término -> (id de libro -> frecuencia ponderada)
+        private final Map<String, Map<Long, Integer>> postings = new HashMap<>();
+        // id -> términos indexados (para poder desindexar) y copia del libro devuelta en las búsquedas
+        private final Map<Long, Set<String>> terminosPorLibro = new HashMap<>();
+        private final Map<Long, Libro> libros = new HashMap<>();
+
+        // 'libro' ya es una copia desacoplada: se guarda tal cual
+        private void indexar(Libro libro) {
+            if (libro.getId() == null) {
+                return;
+            }
+            eliminar(libro.getId());
+            Map<String, Integer> frecuencias = new HashMap<>();
+            TextNormalizer.tokenizar(libro.getTitulo()).forEach(t -> frecuencias.merge(t, PESO_TITULO, Integer::sum));
+            TextNormalizer.tokenizar(libro.getAutor()).forEach(t -> frecuencias.merge(t, PESO_AUTOR, Integer::sum));
+            frecuencias.forEach((termino, tf) ->
+                    postings.computeIfAbsent(termino, k -> new HashMap<>()).put(libro.getId(), tf));
+            terminosPorLibro.put(libro.getId(), frecuencias.keySet());
+            libros.put(libro.getId(), libro);
+        }
+
+        private void eliminar(Long id) {
+            Set<String> terminos = terminosPorLibro.remove(id);
+            libros.remove(id);
+            if (terminos == null) {
+                return;
+            }
+            for (String termino : terminos) {
+                Map<Long, Integer> docs = postings.get(termino);
+                if (docs != null) {
+                    docs.remove(id);
+                    if (docs.isEmpty()) {
+                        postings.remove(termino);
+                    }
+                }
+            }
+        }
+    }
+
+    // Copia desacoplada de la entidad JPA: el índice no comparte instancias con Hibernate ni con los clientes
+    private static Libro copiar(Libro origen) {
+        Libro copia = new Libro();
+        copia.setId(origen.getId());
+        copia.setTitulo(origen.getTitulo());
+        copia.setAutor(origen.getAutor());
+        copia.setIsbn(origen.getIsbn());
+        copia.setVersion(origen.getVersion());
+        return copia;
+    }
+}
@@ -0,0 +1,125 @@
+package com.dwes.security.service.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Autocompletado por prefijo sobre un campo de texto (títulos, nombres de plato).
+ *
+ * Las lecturas usan una instantánea inmutable: dos arrays paralelos ordenados por
+ * texto normalizado, donde una búsqueda binaria localiza el primer candidato y
+ * basta recorrer hacia delante mientras el prefijo coincida (O(log n + k), sin locks).
+ * Sólo se guardan cadenas, no las entidades. Cada escritura reconstruye la
+ * instantánea (O(n)); está pensado para catálogos que se leen mucho más de lo que
+ * se modifican.
+ */
+public class PrefixSuggester {
+
+    // id -> texto original; varios ids pueden compartir el mismo texto
+    private final Map<Long, String> textoPorId = new HashMap<>();
+    // texto normalizado -> [texto original, nº de ids que lo usan]
+    private final TreeMap<String, Entrada> entradas = new TreeMap<>();
+
+    private volatile Snapshot snapshot = new Snapshot(new String[0], new String[0]);
+
+    /** Sustituye todo el contenido (p. ej. al arrancar) */
+    public synchronized void reconstruir(Map<Long, String> textos) {
+        textoPorId.clear();
+        entradas.clear();
+        textos.forEach(this::ponerSinPublicar);
+        publicar();
+    }
+
+    public synchronized void poner(Long id, String texto) {
+        quitarSinPublicar(id);
+        ponerSinPublicar(id, texto);
+        publicar();
+    }
+
+    /** Como poner para cada entrada, publicando una sola instantánea (p. ej. un lote importado) */
+    public synchronized void ponerTodos(Map<Long, String> textos) {
+        textos.forEach((id, texto) -> {
+            quitarSinPublicar(id);
+            ponerSinPublicar(id, texto);
+        });
+        publicar();
+    }
+
+    public synchronized void quitar(Long id) {
+        if (quitarSinPublicar(id)) {
+            publicar();
+        }
+    }
+
+    /** Hasta 'limite' textos que empiezan por 'prefijo' (sin tildes ni mayúsculas), en orden alfabético */
+    public List<String> sugerir(String prefijo, int limite) {
+        String clave = TextNormalizer.normalizar(prefijo).strip();
+        if (clave.isEmpty() || limite < 1) {
+            return List.of();
+        }
+        Snapshot actual = snapshot;
+        int i = Arrays.binarySearch(actual.claves, clave);
+        if (i < 0) {
+            i = -i - 1;
+        }
+        List<String> resultado = new ArrayList<>(Math.min(limite, 16));
+        for (; i < actual.claves.length && resultado.size() < limite && actual.claves[i].startsWith(clave); i++) {
+            resultado.add(actual.textos[i]);
+        }
+        return resultado;
+    }
+
+    public int size() {
+        return snapshot.claves.length;
+    }
+
+    private void ponerSinPublicar(Long id, String texto) {
+        if (id == null || texto == null || texto.isBlank()) {
+            return;
+        }
+        String clave = TextNormalizer.normalizar(texto).strip();
+        textoPorId.put(id, texto);
+        entradas.computeIfAbsent(clave, k -> new Entrada(texto)).usos++;
+    }
+
+    private boolean quitarSinPublicar(Long id) {
+        String texto = textoPorId.remove(id);
+        if (texto == null) {
+            return false;
+        }
+        String clave = TextNormalizer.normalizar(texto).strip();
+        Entrada entrada = entradas.get(clave);
+        if (entrada != null && --entrada.usos == 0) {
+            entradas.remove(clave);
+        }
+        return true;
+    }
+
+    private void publicar() {
+        String[] claves = new String[entradas.size()];
+        String[] textos = new String[entradas.size()];
+        int i = 0;
+        for (Map.Entry<String, Entrada> e : entradas.entrySet()) {
+            claves[i] = e.getKey();
+            textos[i] = e.getValue().texto;
+            i++;
+        }
+        snapshot = new Snapshot(claves, textos);
+    }
+
+    private static final class Entrada {
+        final String texto;
+        int usos;
+
+        Entrada(String texto) {
+            this.texto = texto;
+        }
+    }
+
+    private record Snapshot(String[] claves, String[] textos) {
+    }
+}
@@ -0,0 +1,60 @@
+package com.dwes.security.service.search;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Tokenización para búsqueda en español: minúsculas, sin tildes ni diéresis
+ * ("Canción" == "cancion", "pingüino" == "pinguino", "ñ" == "n") y sin palabras vacías.
+ */
+public final class TextNormalizer {
+
+    private static final Set<String> PALABRAS_VACIAS = Set.of(
+            "a", "al", "con", "de", "del", "el", "en", "la", "las", "lo", "los",
+            "o", "para", "por", "se", "su", "un", "una", "y",
+            "and", "of", "the");
+
+    private TextNormalizer() {
+    }
+
+    /** Quita tildes y pasa a minúsculas, sin partir en tokens */
+    public static String normalizar(String texto) {
+        if (texto == null) {
+            return "";
+        }
+        String sinMarcas = Normalizer.normalize(texto, Normalizer.Form.NFD).replaceAll("\\p{M}+", "");
+        return sinMarcas.toLowerCase(Locale.ROOT);
+    }
+
+    /** Tokens normalizados (letras y dígitos), sin palabras vacías, en orden de aparición */
+    public static List<String> tokenizar(String texto) {
+        return tokenizar(texto, true);
+    }
+
+    /** Igual que tokenizar pero conservando las palabras vacías ("sopa de ajo") */
+    public static List<String> tokenizarSinFiltrar(String texto) {
+        return tokenizar(texto, false);
+    }
+
+    private static List<String> tokenizar(String texto, boolean filtrarVacias) {
+        String normalizado = normalizar(texto);
+        List<String> tokens = new ArrayList<>();
+        int inicio = -1;
+        for (int i = 0; i <= normalizado.length(); i++) {
+            boolean letra = i < normalizado.length() && Character.isLetterOrDigit(normalizado.charAt(i));
+            if (letra && inicio < 0) {
+                inicio = i;
+            } else if (!letra && inicio >= 0) {
+                String token = normalizado.substring(inicio, i);
+                if (!filtrarVacias || !PALABRAS_VACIAS.contains(token)) {
+                    tokens.add(token);
+                }
+                inicio = -1;
+            }
+        }
+        return tokens;
+    }
+}
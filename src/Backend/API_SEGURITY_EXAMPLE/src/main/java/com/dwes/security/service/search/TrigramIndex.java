@@ -0,0 +1,185 @@
+package com.dwes.security.service.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Índice de trigramas para búsqueda tolerante a erratas ("paela", "payella" -> "Paella").
+ *
+ * Los trigramas del texto normalizado (con relleno en los extremos) reducen los
+ * candidatos a los que comparten alguno con la consulta; sobre ellos se calcula la
+ * distancia de Levenshtein contra el nombre completo y contra cada grupo de palabras
+ * consecutivas del mismo tamaño que la consulta, y se queda la menor.
+ */
+public class TrigramIndex {
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // trigrama -> ids que lo contienen
+    private final Map<String, Set<Long>> postings = new HashMap<>();
+    // id -> texto normalizado
+    private final Map<Long, String> textos = new HashMap<>();
+
+    /** Resultado: id, distancia de edición mínima y similitud de trigramas (Dice, 0..1) */
+    public record Match(Long id, int distancia, double similitud) {
+    }
+
+    public void reconstruir(Map<Long, String> nuevos) {
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            textos.clear();
+            nuevos.forEach(this::ponerSinLock);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void poner(Long id, String texto) {
+        lock.writeLock().lock();
+        try {
+            quitarSinLock(id);
+            ponerSinLock(id, texto);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void quitar(Long id) {
+        lock.writeLock().lock();
+        try {
+            quitarSinLock(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Textos a distancia de edición <= maxDistancia de la consulta, ordenados por
+     * distancia, después por similitud de trigramas y por último por id.
+     */
+    public List<Match> buscar(String consulta, int maxDistancia, int limite) {
+        String q = String.join(" ", TextNormalizer.tokenizarSinFiltrar(consulta));
+        if (q.isEmpty() || limite < 1) {
+            return List.of();
+        }
+        Set<String> trigramasConsulta = trigramas(q);
+        lock.readLock().lock();
+        try {
+            Map<Long, Integer> comunes = new HashMap<>();
+            for (String trigrama : trigramasConsulta) {
+                Set<Long> ids = postings.get(trigrama);
+                if (ids != null) {
+                    ids.forEach(id -> comunes.merge(id, 1, Integer::sum));
+                }
+            }
+            List<Match> resultado = new ArrayList<>();
+            comunes.forEach((id, compartidos) -> {
+                String texto = textos.get(id);
+                int distancia = distanciaMinima(q, texto, maxDistancia);
+                if (distancia <= maxDistancia) {
+                    double similitud = 2.0 * compartidos / (trigramasConsulta.size() + trigramas(texto).size());
+                    resultado.add(new Match(id, distancia, similitud));
+                }
+            });
+            resultado.sort(Comparator.comparingInt(Match::distancia)
+                    .thenComparing(Match::similitud, Comparator.reverseOrder())
+                    .thenComparing(Match::id));
+            return resultado.size() > limite ? List.copyOf(resultado.subList(0, limite)) : resultado;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void ponerSinLock(Long id, String texto) {
+        if (id == null || texto == null) {
+            return;
+        }
+        String normalizado = String.join(" ", TextNormalizer.tokenizarSinFiltrar(texto));
+        if (normalizado.isEmpty()) {
+            return;
+        }
+        textos.put(id, normalizado);
+        for (String trigrama : trigramas(normalizado)) {
+            postings.computeIfAbsent(trigrama, k -> new HashSet<>()).add(id);
+        }
+    }
+
+    private void quitarSinLock(Long id) {
+        String texto = textos.remove(id);
+        if (texto == null) {
+            return;
+        }
+        for (String trigrama : trigramas(texto)) {
+            Set<Long> ids = postings.get(trigrama);
+            if (ids != null) {
+                ids.remove(id);
+                if (ids.isEmpty()) {
+                    postings.remove(trigrama);
+                }
+            }
+        }
+    }
+
+    /** Trigramas de cada palabra con relleno: "sol" -> "  s", " so", "sol", "ol " */
+    static Set<String> trigramas(String texto) {
+        Set<String> resultado = new HashSet<>();
+        for (String palabra : texto.split(" ")) {
+            String relleno = "  " + palabra + " ";
+            for (int i = 0; i + 3 <= relleno.length(); i++) {
+                resultado.add(relleno.substring(i, i + 3));
+            }
+        }
+        return resultado;
+    }
+
+    /**
+     * Menor distancia entre la consulta y el texto completo o cualquier grupo de
+     * palabras consecutivas del texto con tantas palabras como la consulta.
+     */
+    private static int distanciaMinima(String consulta, String texto, int max) {
+        int mejor = levenshtein(consulta, texto, max);
+        String[] palabras = texto.split(" ");
+        int n = consulta.split(" ").length;
+        for (int i = 0; i + n <= palabras.length && mejor > 0; i++) {
+            String ventana = String.join(" ", Arrays.copyOfRange(palabras, i, i + n));
+            mejor = Math.min(mejor, levenshtein(consulta, ventana, max));
+        }
+        return mejor;
+    }
+
+    /** Levenshtein con corte: devuelve max+1 en cuanto se sabe que la distancia supera 'max' */
+    static int levenshtein(String a, String b, int max) {
+        if (Math.abs(a.length() - b.length()) > max) {
+            return max + 1;
+        }
+        int[] previa = new int[b.length() + 1];
+        int[] actual = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previa[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            actual[0] = i;
+            int minFila = actual[0];
+            for (int j = 1; j <= b.length(); j++) {
+                int coste = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                actual[j] = Math.min(Math.min(actual[j - 1] + 1, previa[j] + 1), previa[j - 1] + coste);
+                minFila = Math.min(minFila, actual[j]);
+            }
+            if (minFila > max) {
+                return max + 1;
+            }
+            int[] tmp = previa;
+            previa = actual;
+            actual = tmp;
+        }
+        return Math.min(previa[b.length()], max + 1);
+    }
+}
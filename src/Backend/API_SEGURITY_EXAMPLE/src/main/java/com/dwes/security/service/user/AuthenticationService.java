@@ -1,5 +1,6 @@
 package com.dwes.security.service.user;
 
+import com.dwes.security.dto.request.RefreshTokenRequest;
 import com.dwes.security.dto.request.SignUpRequest;
 import com.dwes.security.dto.request.SigninRequest;
 import com.dwes.security.dto.response.user.JwtAuthenticationResponse;
@@ -10,4 +11,11 @@ public interface AuthenticationService {
     JwtAuthenticationResponse signup(SignUpRequest request);
     /** ACCESO a Token JWT */
     JwtAuthenticationResponse signin(SigninRequest request);
+    /** RENOVACIÓN: token de acceso nuevo a partir de un refresh token (que rota) */
+    JwtAuthenticationResponse refresh(RefreshTokenRequest request);
+    /**
+     * CIERRE DE SESIÓN: revoca el token de acceso hasta su expiración y la familia del
+     * refresh token; sin refresh token (null) revoca todas las familias del usuario
+     */
+    void signout(String token, String refreshToken);
 }
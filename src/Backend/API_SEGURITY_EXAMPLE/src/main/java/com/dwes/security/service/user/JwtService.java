@@ -6,4 +6,10 @@ public interface JwtService {
     String extractUserName(String token);
     String generateToken(UserDetails userDetails);
     boolean isTokenValid(String token, UserDetails userDetails);
+    /** Verifica firma y expiración una sola vez; lanza JwtException si el token no es válido */
+    VerifiedClaims verifyToken(String token);
+    /** Rota en caliente la llave de firma (secreto en base64url); la anterior vale hasta jwt.expiration */
+    void reloadSigningKey(String base64UrlSecret);
+    /** Como reloadSigningKey; con 'retirarAnterior' los tokens firmados con la llave saliente dejan de valer ya */
+    void reloadSigningKey(String base64UrlSecret, boolean retirarAnterior);
 }
@@ -0,0 +1,25 @@
+package com.dwes.security.service.user;
+
+import com.dwes.security.entities.Usuario;
+
+public interface RefreshTokenService {
+
+    /** Emite un refresh token nuevo (nueva familia) y devuelve su valor en claro */
+    String issue(Usuario usuario);
+
+    /**
+     * Consume el refresh token y emite el siguiente de la misma familia.
+     * @throws com.dwes.security.error.exception.InvalidRefreshTokenException si no es válido o ya se usó
+     */
+    Rotated rotate(String refreshToken);
+
+    /** Revoca la familia del refresh token (signout); un token desconocido se ignora */
+    void revoke(String refreshToken);
+
+    /** Revoca todas las familias del usuario (signout sin refresh token) */
+    void revokeAll(String email);
+
+    /** Resultado de una rotación: el usuario (recargado de la BD) y el nuevo refresh token */
+    record Rotated(Usuario usuario, String refreshToken) {
+    }
+}
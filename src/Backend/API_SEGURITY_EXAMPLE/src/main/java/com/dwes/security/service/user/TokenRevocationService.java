@@ -0,0 +1,10 @@
+package com.dwes.security.service.user;
+
+public interface TokenRevocationService {
+
+    /** Revoca el token hasta su expiración natural */
+    void revoke(VerifiedClaims claims);
+
+    /** true si el token ha sido revocado (los tokens sin 'jti' nunca lo están) */
+    boolean isRevoked(VerifiedClaims claims);
+}
@@ -0,0 +1,55 @@
+package com.dwes.security.service.user;
+
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Resultado de verificar un token JWT una sola vez.
+ *
+ * La firma y la expiración ya se han comprobado al construir este objeto,
+ * así que el filtro puede leer subject, expiración y roles sin volver a
+ * parsear el token.
+ */
+public class VerifiedClaims {
+
+    private final String subject;
+    private final Date expiration;
+    private final List<String> roles;
+    private final Integer userId;
+    private final String jti;
+
+    public VerifiedClaims(String subject, Date expiration, List<String> roles, Integer userId, String jti) {
+        this.subject = subject;
+        this.expiration = expiration;
+        this.roles = roles == null ? Collections.emptyList() : List.copyOf(roles);
+        this.userId = userId;
+        this.jti = jti;
+    }
+
+    public String getSubject() {
+        return subject;
+    }
+
+    public Date getExpiration() {
+        return expiration;
+    }
+
+    public List<String> getRoles() {
+        return roles;
+    }
+
+    /** Id del Usuario (claim "uid"); null en tokens emitidos antes de incluirlo */
+    public Integer getUserId() {
+        return userId;
+    }
+
+    /** Identificador único del token (claim "jti"), usado para revocarlo; null en tokens antiguos */
+    public String getJti() {
+        return jti;
+    }
+
+    public boolean isExpired() {
+        return expiration != null && expiration.before(new Date());
+    }
+}
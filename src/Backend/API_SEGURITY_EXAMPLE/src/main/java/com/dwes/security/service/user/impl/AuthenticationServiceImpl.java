@@ -6,6 +6,7 @@ import org.springframework.security.core.Authentication;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
+import com.dwes.security.dto.request.RefreshTokenRequest;
 import com.dwes.security.dto.request.SignUpRequest;
 import com.dwes.security.dto.request.SigninRequest;
 import com.dwes.security.dto.response.user.JwtAuthenticationResponse;
@@ -14,6 +15,11 @@ import com.dwes.security.entities.Usuario;
 import com.dwes.security.repository.UserRepository;
 import com.dwes.security.service.user.AuthenticationService;
 import com.dwes.security.service.user.JwtService;
+import com.dwes.security.service.user.RefreshTokenService;
+import com.dwes.security.service.user.TokenRevocationService;
+import com.dwes.security.service.user.VerifiedClaims;
+
+import io.jsonwebtoken.JwtException;
 
 import lombok.Builder;
 
@@ -24,16 +30,22 @@ public class AuthenticationServiceImpl implements AuthenticationService {
     private final PasswordEncoder passwordEncoder;
     private final JwtService jwtService;
     private final AuthenticationManager authenticationManager;
+    private final TokenRevocationService tokenRevocationService;
+    private final RefreshTokenService refreshTokenService;
 
     // Constructor para inyección de dependencias (si usas Spring)
     public AuthenticationServiceImpl(UserRepository userRepository,
                                      PasswordEncoder passwordEncoder,
                                      JwtService jwtService,
-                                     AuthenticationManager authenticationManager) {
+                                     AuthenticationManager authenticationManager,
+                                     TokenRevocationService tokenRevocationService,
+                                     RefreshTokenService refreshTokenService) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
         this.jwtService = jwtService;
         this.authenticationManager = authenticationManager;
+        this.tokenRevocationService = tokenRevocationService;
+        this.refreshTokenService = refreshTokenService;
     }
 
     @Override
@@ -50,7 +62,10 @@ public class AuthenticationServiceImpl implements AuthenticationService {
         user.getRoles().add(Role.ROLE_USER); // Asegúrate de que Role.USER esté definido correctamente
         userRepository.save(user);
         String jwt = jwtService.generateToken(user);
-        return JwtAuthenticationResponse.builder().token(jwt).build();
+        return JwtAuthenticationResponse.builder()
+                .token(jwt)
+                .refreshToken(refreshTokenService.issue(user))
+                .build();
     }
 
     @Override
@@ -64,6 +79,41 @@ public class AuthenticationServiceImpl implements AuthenticationService {
         Usuario user = userRepository.findByEmail(request.getEmail())
                 .orElseThrow(() -> new IllegalArgumentException("Invalid email or password."));
         String jwt = jwtService.generateToken(user);
-        return JwtAuthenticationResponse.builder().token(jwt).build();
+        return JwtAuthenticationResponse.builder()
+                .token(jwt)
+                .refreshToken(refreshTokenService.issue(user))
+                .build();
+    }
+
+    @Override
+    public JwtAuthenticationResponse refresh(RefreshTokenRequest request) {
+        // Único punto (junto con signin) que vuelve a leer el usuario y sus roles de la BD
+        RefreshTokenService.Rotated rotado = refreshTokenService.rotate(request.getRefreshToken());
+        return JwtAuthenticationResponse.builder()
+                .token(jwtService.generateToken(rotado.usuario()))
+                .refreshToken(rotado.refreshToken())
+                .build();
+    }
+
+    @Override
+    public void signout(String token, String refreshToken) {
+        // Quien tiene el refresh token puede usarlo, así que también puede revocarlo
+        if (refreshToken != null && !refreshToken.isBlank()) {
+            refreshTokenService.revoke(refreshToken);
+        }
+        final VerifiedClaims claims;
+        try {
+            claims = jwtService.verifyToken(token);
+        } catch (JwtException | IllegalArgumentException e) {
+            // Token inválido o expirado: ya no da acceso, no hay nada más que revocar
+            return;
+        }
+        if (!tokenRevocationService.isRevoked(claims)) {
+            tokenRevocationService.revoke(claims);
+        }
+        if (refreshToken == null || refreshToken.isBlank()) {
+            // Sin saber qué sesión cierra: si no, /refresh seguiría dando tokens de acceso
+            refreshTokenService.revokeAll(claims.getSubject());
+        }
     }
 }
@@ -1,25 +1,41 @@
 package com.dwes.security.service.user.impl;
 
 import java.util.Date;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.UUID;
 import java.util.function.Function;
 
 import javax.crypto.SecretKey;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 
+import com.dwes.security.entities.Usuario;
 import com.dwes.security.service.user.JwtService;
+import com.dwes.security.service.user.VerifiedClaims;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.SignatureException;
+import jakarta.annotation.PostConstruct;
 
 @Service
 public class JwtServiceImpl implements JwtService {
+
+    private static final Logger log = LoggerFactory.getLogger(JwtServiceImpl.class);
+
     /**
      * #############
      * #   CLAIMS  #
@@ -37,10 +53,61 @@ public class JwtServiceImpl implements JwtService {
     @Value("${jwt.secret}")
     private String jwtSigningKey;
 
-    // Tiempo de expiración del token en milisegundos (por defecto 10 horas)
-    @Value("${jwt.expiration:36000000}")
+    // Tiempo de expiración del token de acceso en milisegundos (por defecto 15 minutos;
+    // se renueva con el refresh token)
+    @Value("${jwt.expiration:900000}")
     private Long jwtExpiration;
 
+    // Caché opcional de tokens ya verificados (desactivada salvo jwt.cache.enabled=true)
+    @Autowired
+    private VerifiedTokenCache tokenCache = VerifiedTokenCache.disabled();
+
+    // Llave y parser construidos una sola vez (el JwtParser de jjwt es inmutable y thread-safe).
+    // 'anterior' se mantiene tras una rotación para no invalidar los tokens ya emitidos, pero sólo
+    // durante jwt.expiration: pasado ese tiempo ningún token firmado con ella sigue vigente.
+    //
+    // Origen de la llave: jwt.secret (variable de entorno en producción). La rotación en caliente
+    // sólo vive en memoria de esta instancia: tras un reinicio se vuelve a jwt.secret y los demás
+    // nodos no se enteran. Para que sea definitiva, actualizar jwt.secret en la configuración de
+    // todos los nodos y rotar en cada uno.
+    private volatile SigningMaterial actual;
+    private volatile SigningMaterial anterior;
+
+    @PostConstruct
+    void init() {
+        reloadSigningKey(jwtSigningKey);
+    }
+
+    @Override
+    public void reloadSigningKey(String base64UrlSecret) {
+        reloadSigningKey(base64UrlSecret, false);
+    }
+
+    /**
+     * Sustituye en caliente la llave de firma (secreto en base64url).
+     * Los tokens nuevos se firman con la nueva llave; los firmados con la anterior
+     * se siguen aceptando durante jwt.expiration, salvo con 'retirarAnterior'
+     * (llave comprometida), que los invalida en el momento.
+     */
+    @Override
+    public void reloadSigningKey(String base64UrlSecret, boolean retirarAnterior) {
+        final SigningMaterial nuevo;
+        try {
+            nuevo = new SigningMaterial(Keys.hmacShaKeyFor(Decoders.BASE64URL.decode(base64UrlSecret)));
+        } catch (JwtException | IllegalArgumentException e) {
+            throw new IllegalArgumentException("Clave JWT no válida: " + e.getMessage());
+        }
+        SigningMaterial saliente = actual;
+        anterior = saliente == null || retirarAnterior ? null
+                : saliente.aceptadaHasta(System.currentTimeMillis() + jwtExpiration);
+        actual = nuevo;
+        tokenCache.invalidateAll();
+        if (saliente != null) {
+            log.info("Llave de firma JWT rotada ({}); sólo en memoria de esta instancia",
+                    retirarAnterior ? "anterior retirada" : "anterior aceptada " + jwtExpiration + " ms");
+        }
+    }
+
     /**
      * Extrae el nombre de usuario (subject) del token JWT.
      * En un JWT, el 'subject' suele referirse al identificador del usuario.
@@ -55,7 +122,15 @@ public class JwtServiceImpl implements JwtService {
      */
     @Override
     public String generateToken(UserDetails userDetails) {
-        return generateToken(new HashMap<>(), userDetails);
+        // Roles e id viajan en el token para poder autenticar sin ir a la BD (jwt.stateless.enabled)
+        Map<String, Object> claims = new HashMap<>();
+        claims.put("roles", userDetails.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .toList());
+        if (userDetails instanceof Usuario usuario && usuario.getId() != null) {
+            claims.put("uid", usuario.getId());
+        }
+        return generateToken(claims, userDetails);
     }
 
     /**
@@ -63,8 +138,24 @@ public class JwtServiceImpl implements JwtService {
      */
     @Override
     public boolean isTokenValid(String token, UserDetails userDetails) {
-        final String userName = extractUserName(token);
-        return (userName.equals(userDetails.getUsername())) && !isTokenExpired(token);
+        final VerifiedClaims claims = verifyToken(token);
+        return claims.getSubject().equals(userDetails.getUsername()) && !claims.isExpired();
+    }
+
+    /**
+     * Parsea y verifica el token una única vez (firma HMAC + expiración) y devuelve
+     * los datos que necesita el filtro. Si el token no es válido, jjwt lanza JwtException.
+     * Con la caché activa, un token ya verificado no vuelve a pasar por HMAC hasta su 'exp'.
+     */
+    @Override
+    public VerifiedClaims verifyToken(String token) {
+        return tokenCache.get(token, this::verifyUncached);
+    }
+
+    private VerifiedClaims verifyUncached(String token) {
+        final Claims claims = extractAllClaims(token);
+        return new VerifiedClaims(claims.getSubject(), claims.getExpiration(), extractRoles(claims),
+                claims.get("uid", Integer.class), claims.getId());
     }
 
     /**
@@ -86,24 +177,22 @@ public class JwtServiceImpl implements JwtService {
         return Jwts.builder()
                 .claims(extraClaims)
                 .subject(userDetails.getUsername())
+                .id(UUID.randomUUID().toString()) // jti: permite revocar este token concreto
                 .issuedAt(new Date(currentTimeMillis))
                 .expiration(new Date(currentTimeMillis + jwtExpiration)) // Token expira según configuración
-                .signWith(getSigningKey(), Jwts.SIG.HS256)
+                .signWith(actual.key, Jwts.SIG.HS256)
                 .compact();
     }
 
     /**
-     * Verifica si el token ha expirado.
+     * Lee el claim "roles" si viene en el token (lista de nombres de rol).
      */
-    private boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
-    }
-
-    /**
-     * Extrae la fecha de expiración del token.
-     */
-    private Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
+    private List<String> extractRoles(Claims claims) {
+        Object roles = claims.get("roles");
+        if (roles instanceof Collection<?> coleccion) {
+            return coleccion.stream().map(String::valueOf).toList();
+        }
+        return List.of();
     }
 
     /**
@@ -111,22 +200,39 @@ public class JwtServiceImpl implements JwtService {
      * Aquí se extrae y se procesa el conjunto completo de claims del JWT.
      */
     private Claims extractAllClaims(String token) {
-        return Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
+        try {
+            return actual.parser.parseSignedClaims(token).getPayload();
+        } catch (SignatureException e) {
+            // Puede estar firmado con la llave previa a la última rotación, si aún no se ha retirado
+            SigningMaterial previo = anterior;
+            if (previo == null || System.currentTimeMillis() >= previo.aceptadaHasta) {
+                throw e;
+            }
+            return previo.parser.parseSignedClaims(token).getPayload();
+        }
     }
 
     /**
-     * Obtiene la llave de firma a partir de la cadena codificada en base64.
+     * Llave de firma y parser asociado, precalculados a partir del secreto.
      */
-    private SecretKey getSigningKey() {
-       /* byte[] keyBytes = Decoders.BASE64.decode(jwtSigningKey);
-        return Keys.hmacShaKeyFor(keyBytes);*/
-    	return Keys.hmacShaKeyFor(Decoders.BASE64URL.decode(jwtSigningKey));
-
-
-
+    private static final class SigningMaterial {
+        private final SecretKey key;
+        private final JwtParser parser;
+        // Instante (ms) a partir del cual deja de aceptarse; sin límite mientras es la actual
+        private final long aceptadaHasta;
+
+        private SigningMaterial(SecretKey key) {
+            this(key, Jwts.parser().verifyWith(key).build(), Long.MAX_VALUE);
+        }
+
+        private SigningMaterial(SecretKey key, JwtParser parser, long aceptadaHasta) {
+            this.key = key;
+            this.parser = parser;
+            this.aceptadaHasta = aceptadaHasta;
+        }
+
+        private SigningMaterial aceptadaHasta(long instante) {
+            return new SigningMaterial(key, parser, instante);
+        }
     }
-}
\ No newline at end of file
+}
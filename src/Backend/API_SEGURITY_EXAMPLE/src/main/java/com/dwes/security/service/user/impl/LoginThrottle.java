@@ -0,0 +1,187 @@
+package com.dwes.security.service.user.impl;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.dwes.security.error.exception.TooManyLoginAttemptsException;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Limitador de intentos de signin por email y por IP (token bucket en memoria).
+ *
+ * Se consulta antes de AuthenticationManager.authenticate, así que un atacante
+ * rechazado no cuesta ni consultas a la BD ni un BCrypt. Las claves se reparten
+ * en 'stripes' (un LinkedHashMap en orden de acceso y un lock por stripe) para
+ * no serializar todos los signin en un único monitor; cada stripe está acotado
+ * y descarta los buckets inactivos más antiguos al acceder.
+ */
+@Component
+public class LoginThrottle {
+
+    private final boolean enabled;
+    private final Limite porEmail;
+    private final Limite porIp;
+    private final long idleNanos;
+    private final int maxPorStripe;
+    private final Stripe[] stripes;
+    private final LongSupplier reloj;
+
+    private final Counter rechazadosEmail;
+    private final Counter rechazadosIp;
+
+    @Autowired
+    public LoginThrottle(@Value("${security.login.throttle.enabled:true}") boolean enabled,
+                         @Value("${security.login.throttle.email.capacity:5}") int emailCapacity,
+                         @Value("${security.login.throttle.email.refill:PT12S}") Duration emailRefill,
+                         @Value("${security.login.throttle.ip.capacity:20}") int ipCapacity,
+                         @Value("${security.login.throttle.ip.refill:PT3S}") Duration ipRefill,
+                         @Value("${security.login.throttle.idle-timeout:PT10M}") Duration idleTimeout,
+                         @Value("${security.login.throttle.max-keys:100000}") int maxKeys,
+                         MeterRegistry meterRegistry) {
+        this(enabled, new Limite(emailCapacity, emailRefill), new Limite(ipCapacity, ipRefill),
+                idleTimeout, maxKeys, 16, System::nanoTime, meterRegistry);
+    }
+
+    LoginThrottle(boolean enabled, Limite porEmail, Limite porIp, Duration idleTimeout, int maxKeys,
+                  int numStripes, LongSupplier reloj, MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.porEmail = porEmail;
+        this.porIp = porIp;
+        this.idleNanos = idleTimeout.toNanos();
+        this.maxPorStripe = Math.max(1, maxKeys / numStripes);
+        this.stripes = new Stripe[numStripes];
+        for (int i = 0; i < numStripes; i++) {
+            stripes[i] = new Stripe();
+        }
+        this.reloj = reloj;
+        this.rechazadosEmail = Counter.builder("auth.signin.throttled").tag("key", "email").register(meterRegistry);
+        this.rechazadosIp = Counter.builder("auth.signin.throttled").tag("key", "ip").register(meterRegistry);
+    }
+
+    /**
+     * Consume un intento para la IP y otro para el email.
+     * @throws TooManyLoginAttemptsException si alguno de los dos buckets está vacío
+     */
+    public void check(String email, String ip) {
+        if (!enabled) {
+            return;
+        }
+        long ahora = reloj.getAsLong();
+        long esperaIp = consumir("ip:" + (ip == null ? "" : ip), porIp, ahora);
+        if (esperaIp > 0) {
+            rechazadosIp.increment();
+            throw new TooManyLoginAttemptsException(segundos(esperaIp));
+        }
+        String clave = email == null ? "" : email.trim().toLowerCase(Locale.ROOT);
+        long esperaEmail = consumir("email:" + clave, porEmail, ahora);
+        if (esperaEmail > 0) {
+            rechazadosEmail.increment();
+            throw new TooManyLoginAttemptsException(segundos(esperaEmail));
+        }
+    }
+
+    /** Número de buckets vivos (para tests y diagnóstico) */
+    int size() {
+        int total = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                total += stripe.buckets.size();
+            }
+        }
+        return total;
+    }
+
+    /** Devuelve 0 si se ha consumido un token o los nanos hasta el siguiente token */
+    private long consumir(String clave, Limite limite, long ahora) {
+        Stripe stripe = stripes[(clave.hashCode() & 0x7fffffff) % stripes.length];
+        synchronized (stripe) {
+            stripe.purgarInactivos(ahora, idleNanos);
+            Bucket bucket = stripe.buckets.get(clave);
+            if (bucket == null) {
+                bucket = new Bucket(limite.capacity, ahora);
+                stripe.buckets.put(clave, bucket);
+            }
+            return bucket.consumir(limite, ahora);
+        }
+    }
+
+    private static long segundos(long nanos) {
+        return Math.max(1, (nanos + 999_999_999L) / 1_000_000_000L);
+    }
+
+    static final class Limite {
+        final int capacity;
+        final long refillNanos;
+
+        Limite(int capacity, Duration refill) {
+            if (capacity < 1 || refill.isNegative() || refill.isZero()) {
+                throw new IllegalArgumentException("Límite de signin no válido: " + capacity + "/" + refill);
+            }
+            this.capacity = capacity;
+            this.refillNanos = refill.toNanos();
+        }
+    }
+
+    /** Tokens disponibles y último acceso; se muta bajo el lock del stripe */
+    private static final class Bucket {
+        long tokens;
+        long ultimoRelleno;
+        long ultimoAcceso;
+
+        Bucket(long tokens, long ahora) {
+            this.tokens = tokens;
+            this.ultimoRelleno = ahora;
+            this.ultimoAcceso = ahora;
+        }
+
+        long consumir(Limite limite, long ahora) {
+            ultimoAcceso = ahora;
+            long nuevos = (ahora - ultimoRelleno) / limite.refillNanos;
+            if (nuevos > 0) {
+                tokens = Math.min(limite.capacity, tokens + nuevos);
+                ultimoRelleno = tokens == limite.capacity ? ahora : ultimoRelleno + nuevos * limite.refillNanos;
+            }
+            if (tokens > 0) {
+                if (tokens == limite.capacity) {
+                    // El reloj de relleno sólo corre mientras el bucket no está lleno
+                    ultimoRelleno = ahora;
+                }
+                tokens--;
+                return 0;
+            }
+            return limite.refillNanos - (ahora - ultimoRelleno);
+        }
+    }
+
+    private final class Stripe {
+        // Orden de acceso: el primero es siempre el bucket usado hace más tiempo
+        final LinkedHashMap<String, Bucket> buckets = new LinkedHashMap<>(64, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Bucket> eldest) {
+                return size() > maxPorStripe;
+            }
+        };
+
+        void purgarInactivos(long ahora, long idleNanos) {
+            Iterator<Bucket> it = buckets.values().iterator();
+            while (it.hasNext()) {
+                if (ahora - it.next().ultimoAcceso < idleNanos) {
+                    break;
+                }
+                it.remove();
+            }
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.dwes.security.service.user.impl;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.UUID;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.dwes.security.entities.RefreshToken;
+import com.dwes.security.entities.Usuario;
+import com.dwes.security.error.exception.InvalidRefreshTokenException;
+import com.dwes.security.repository.RefreshTokenRepository;
+import com.dwes.security.service.user.RefreshTokenService;
+
+/**
+ * Refresh tokens opacos con rotación.
+ *
+ * Cada uso consume el token y emite otro de la misma familia. Presentar un token
+ * ya consumido indica que alguien más lo tiene: se revoca toda la familia y el
+ * usuario tendrá que volver a hacer signin.
+ */
+@Service
+public class RefreshTokenServiceImpl implements RefreshTokenService {
+
+    private static final Logger log = LoggerFactory.getLogger(RefreshTokenServiceImpl.class);
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    @Autowired
+    private RefreshTokenRepository refreshTokenRepository;
+
+    // Validez de cada refresh token (por defecto 7 días)
+    @Value("${jwt.refresh.expiration:P7D}")
+    private Duration refreshExpiration;
+
+    @Override
+    @Transactional
+    public String issue(Usuario usuario) {
+        return crear(usuario, UUID.randomUUID().toString());
+    }
+
+    @Override
+    @Transactional(noRollbackFor = InvalidRefreshTokenException.class)
+    public Rotated rotate(String refreshToken) {
+        if (refreshToken == null || refreshToken.isBlank()) {
+            throw new InvalidRefreshTokenException("Refresh token no válido");
+        }
+        RefreshToken actual = refreshTokenRepository.findByTokenHash(hash(refreshToken))
+                .orElseThrow(() -> new InvalidRefreshTokenException("Refresh token no válido"));
+        if (actual.getExpiresAt().isBefore(Instant.now())) {
+            throw new InvalidRefreshTokenException("Refresh token caducado");
+        }
+        if (refreshTokenRepository.marcarUsado(actual.getId()) == 0) {
+            // Reutilización: el token ya se había rotado (o la familia estaba revocada)
+            refreshTokenRepository.revocarFamilia(actual.getFamilyId());
+            log.warn("Refresh token reutilizado; revocada la familia {}", actual.getFamilyId());
+            throw new InvalidRefreshTokenException("Refresh token ya utilizado");
+        }
+        Usuario usuario = actual.getUsuario();
+        return new Rotated(usuario, crear(usuario, actual.getFamilyId()));
+    }
+
+    @Override
+    @Transactional
+    public void revoke(String refreshToken) {
+        refreshTokenRepository.findByTokenHash(hash(refreshToken))
+                .ifPresent(token -> refreshTokenRepository.revocarFamilia(token.getFamilyId()));
+    }
+
+    @Override
+    @Transactional
+    public void revokeAll(String email) {
+        refreshTokenRepository.revocarTodasDeUsuario(email);
+    }
+
+    /**
+     * Borra los refresh tokens caducados (usados o no).
+     */
+    @Scheduled(fixedDelayString = "${jwt.refresh.purge-interval:PT1H}",
+               initialDelayString = "${jwt.refresh.purge-interval:PT1H}")
+    public void purgarCaducados() {
+        long borrados = refreshTokenRepository.deleteByExpiresAtBefore(Instant.now());
+        if (borrados > 0) {
+            log.info("Refresh tokens caducados eliminados: {}", borrados);
+        }
+    }
+
+    private String crear(Usuario usuario, String familyId) {
+        byte[] bytes = new byte[32];
+        RANDOM.nextBytes(bytes);
+        String valor = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+
+        RefreshToken token = new RefreshToken();
+        token.setTokenHash(hash(valor));
+        token.setFamilyId(familyId);
+        token.setUsuario(usuario);
+        token.setExpiresAt(Instant.now().plus(refreshExpiration));
+        refreshTokenRepository.save(token);
+        return valor;
+    }
+
+    private static String hash(String valor) {
+        try {
+            MessageDigest md = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(md.digest(valor.getBytes(StandardCharsets.US_ASCII)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.dwes.security.service.user.impl;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.dwes.security.entities.RevokedToken;
+import com.dwes.security.repository.RevokedTokenRepository;
+import com.dwes.security.service.user.TokenRevocationService;
+import com.dwes.security.service.user.VerifiedClaims;
+import com.dwes.security.util.BloomFilter;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Lista de tokens revocados: tabla revoked_tokens + copia en memoria.
+ *
+ * El filtro consulta isRevoked en cada petición autenticada. El caso normal
+ * (token no revocado) se resuelve con el filtro de Bloom sin tocar el mapa;
+ * sólo los positivos (revocados o falsos positivos) miran el ConcurrentHashMap.
+ * Cada entrada dura hasta el 'exp' del token; el refresco periódico borra las
+ * caducadas de la tabla, recarga las vigentes (revocaciones hechas en otras
+ * instancias) y reconstruye el filtro de Bloom.
+ */
+@Service
+public class TokenRevocationServiceImpl implements TokenRevocationService {
+
+    private static final Logger log = LoggerFactory.getLogger(TokenRevocationServiceImpl.class);
+
+    private final RevokedTokenRepository repository;
+    private final int expectedEntries;
+    private final double fpp;
+
+    // jti -> exp (epoch ms)
+    private volatile Map<String, Long> revocados = new ConcurrentHashMap<>();
+    private volatile BloomFilter bloom;
+
+    @Autowired
+    public TokenRevocationServiceImpl(RevokedTokenRepository repository,
+                                      @Value("${jwt.revocation.expected-entries:100000}") int expectedEntries,
+                                      @Value("${jwt.revocation.fpp:0.01}") double fpp,
+                                      MeterRegistry meterRegistry) {
+        this.repository = repository;
+        this.expectedEntries = expectedEntries;
+        this.fpp = fpp;
+        this.bloom = new BloomFilter(expectedEntries, fpp);
+        Gauge.builder("jwt.revoked", this, s -> s.revocados.size()).register(meterRegistry);
+    }
+
+    @PostConstruct
+    void init() {
+        refrescar();
+    }
+
+    @Override
+    public synchronized void revoke(VerifiedClaims claims) {
+        String jti = claims.getJti();
+        if (jti == null || claims.getExpiration() == null) {
+            throw new IllegalArgumentException("El token no se puede revocar (sin jti o sin exp)");
+        }
+        long exp = claims.getExpiration().getTime();
+        repository.save(new RevokedToken(jti, Instant.ofEpochMilli(exp), claims.getSubject()));
+        // Primero el mapa y después el Bloom: quien vea el bit ya encuentra la entrada
+        revocados.put(jti, exp);
+        bloom.put(jti);
+    }
+
+    @Override
+    public boolean isRevoked(VerifiedClaims claims) {
+        String jti = claims.getJti();
+        if (jti == null || !bloom.mightContain(jti)) {
+            return false;
+        }
+        Long exp = revocados.get(jti);
+        return exp != null && exp > System.currentTimeMillis();
+    }
+
+    /**
+     * Purga las revocaciones caducadas y reconstruye la copia en memoria desde la tabla.
+     */
+    @Scheduled(fixedDelayString = "${jwt.revocation.refresh-interval:PT5M}",
+               initialDelayString = "${jwt.revocation.refresh-interval:PT5M}")
+    public void refrescar() {
+        Instant ahora = Instant.now();
+        long borrados = repository.deleteByExpiresAtBefore(ahora);
+        List<RevokedToken> vigentes = repository.findByExpiresAtAfter(ahora);
+
+        Map<String, Long> nuevos = new ConcurrentHashMap<>();
+        BloomFilter nuevoBloom = new BloomFilter(Math.max(expectedEntries, vigentes.size()), fpp);
+        for (RevokedToken token : vigentes) {
+            nuevos.put(token.getJti(), token.getExpiresAt().toEpochMilli());
+            nuevoBloom.put(token.getJti());
+        }
+        synchronized (this) {
+            // Revocaciones de esta instancia hechas mientras se leía la tabla
+            revocados.forEach((jti, exp) -> {
+                if (exp > ahora.toEpochMilli() && nuevos.putIfAbsent(jti, exp) == null) {
+                    nuevoBloom.put(jti);
+                }
+            });
+            // Mapa antes que Bloom: quien lea el Bloom nuevo ya ve el mapa nuevo
+            revocados = nuevos;
+            bloom = nuevoBloom;
+        }
+        if (borrados > 0) {
+            log.info("Revocaciones JWT caducadas eliminadas: {}", borrados);
+        }
+    }
+}
@@ -1,35 +1,84 @@
 package com.dwes.security.service.user.impl;
 
+import java.time.Duration;
 import java.util.List;
 import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
 import com.dwes.security.dto.response.user.UsuarioResponse;
+import com.dwes.security.entities.Usuario;
 import com.dwes.security.repository.UserRepository;
 import com.dwes.security.service.UserService;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 
-import lombok.RequiredArgsConstructor;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 
 @Service
-@RequiredArgsConstructor
 public class UserServiceImpl implements UserService {
 	@Autowired
     private UserRepository userRepository;
+
+    // Caché local email -> Usuario (con sus roles) para no repetir findByEmail en cada petición.
+    // Se invalida desde UsuarioCacheListener al crear, modificar o borrar un usuario.
+    private final Cache<String, Usuario> usuarios;
+
+    private final UserDetailsService userDetailsService = new UserDetailsService() {
+        @Override
+        public UserDetails loadUserByUsername(String username) {
+            Usuario usuario = usuarios.getIfPresent(username);
+            if (usuario != null) {
+                return usuario;
+            }
+            usuario = userRepository.findByEmail(username)
+                    .orElseThrow(() -> new UsernameNotFoundException("User not found"));
+            usuarios.put(username, usuario);
+            return usuario;
+        }
+    };
+
+    public UserServiceImpl(@Value("${users.cache.ttl:PT5M}") Duration ttl,
+                           @Value("${users.cache.max-size:10000}") long maxSize,
+                           MeterRegistry meterRegistry) {
+        this.usuarios = Caffeine.newBuilder()
+                .expireAfterWrite(ttl)
+                .maximumSize(maxSize)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, usuarios, "usuarios.details");
+    }
+
     @Override
     public UserDetailsService userDetailsService() {
-        return new UserDetailsService() {
-            @Override
-            public UserDetails loadUserByUsername(String username) {
-                return userRepository.findByEmail(username)
-                        .orElseThrow(() -> new UsernameNotFoundException("User not found"));
-            }
+        return userDetailsService;
+    }
+
+    @Override
+    public UserDetailsPasswordService userDetailsPasswordService() {
+        return (user, newPassword) -> {
+            // Se recarga de la BD para no modificar la instancia compartida de la caché
+            Usuario usuario = userRepository.findByEmail(user.getUsername())
+                    .orElseThrow(() -> new UsernameNotFoundException("User not found"));
+            usuario.setPassword(newPassword);
+            return userRepository.save(usuario);
         };
     }
+
+    @Override
+    public void evictUserDetails(String email) {
+        if (email != null) {
+            usuarios.invalidate(email);
+        }
+    }
+
 	@Override
 	public List<UsuarioResponse> getAllUsers() {
 		List<UsuarioResponse> allUsers =  userRepository.findAll().stream()
@@ -0,0 +1,43 @@
+package com.dwes.security.service.user.impl;
+
+import java.util.Objects;
+
+import org.springframework.beans.factory.ObjectProvider;
+
+import com.dwes.security.entities.Usuario;
+import com.dwes.security.service.UserService;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+
+/**
+ * Listener JPA de Usuario: cualquier alta (signup), cambio (roles, password, email) o baja
+ * invalida la entrada correspondiente de la caché de UserDetails. Los cambios sólo de
+ * roles llegan aquí porque Usuario tiene @Version (ver la entidad).
+ * Se ejecuta antes que los callbacks de la propia entidad: getEmailCargado() aún
+ * devuelve el email anterior a esta escritura.
+ * Hibernate lo instancia a través de Spring, por eso puede recibir dependencias.
+ */
+public class UsuarioCacheListener {
+
+    // ObjectProvider: el listener se crea junto al EntityManagerFactory, antes que UserService
+    private final ObjectProvider<UserService> userService;
+
+    public UsuarioCacheListener(ObjectProvider<UserService> userService) {
+        this.userService = userService;
+    }
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    void invalidar(Usuario usuario) {
+        userService.ifAvailable(service -> {
+            service.evictUserDetails(usuario.getEmail());
+            if (!Objects.equals(usuario.getEmailCargado(), usuario.getEmail())) {
+                // Cambio de email: la entrada cacheada está bajo el anterior
+                service.evictUserDetails(usuario.getEmailCargado());
+            }
+        });
+    }
+}
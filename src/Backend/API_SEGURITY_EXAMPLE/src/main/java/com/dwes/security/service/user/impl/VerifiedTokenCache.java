@@ -0,0 +1,128 @@
+package com.dwes.security.service.user.impl;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.dwes.security.service.user.VerifiedClaims;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Caché acotada de tokens ya verificados (opcional, jwt.cache.enabled).
+ *
+ * La clave es el SHA-256 del token, nunca el token en claro. Cada entrada vive
+ * como mucho hasta el 'exp' del propio token, así que un acierto devuelve
+ * claims que seguirían siendo válidos si se volvieran a verificar.
+ * Métricas: cache.gets / cache.evictions con tag cache=jwt.verified-tokens.
+ */
+@Component
+public class VerifiedTokenCache {
+
+    private static final ThreadLocal<MessageDigest> SHA256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    });
+
+    private final Cache<TokenDigest, VerifiedClaims> cache;
+
+    @Autowired
+    public VerifiedTokenCache(@Value("${jwt.cache.enabled:false}") boolean enabled,
+                              @Value("${jwt.cache.max-size:10000}") long maxSize,
+                              MeterRegistry meterRegistry) {
+        this.cache = enabled ? crearCache(maxSize) : null;
+        if (cache != null) {
+            CaffeineCacheMetrics.monitor(meterRegistry, cache, "jwt.verified-tokens");
+        }
+    }
+
+    private VerifiedTokenCache() {
+        this.cache = null;
+    }
+
+    /** Caché desactivada: siempre delega en la verificación real */
+    public static VerifiedTokenCache disabled() {
+        return new VerifiedTokenCache();
+    }
+
+    public boolean isEnabled() {
+        return cache != null;
+    }
+
+    /**
+     * Devuelve los claims cacheados del token o los obtiene con 'verificador'.
+     * Si el verificador lanza excepción (token inválido), no se cachea nada.
+     */
+    public VerifiedClaims get(String token, Function<String, VerifiedClaims> verificador) {
+        if (cache == null) {
+            return verificador.apply(token);
+        }
+        TokenDigest clave = TokenDigest.of(token);
+        VerifiedClaims claims = cache.get(clave, k -> verificador.apply(token));
+        if (claims.isExpired()) {
+            // La entrada caduca en 'exp', pero el reloj puede adelantarse unos ms a Caffeine
+            cache.invalidate(clave);
+            return verificador.apply(token);
+        }
+        return claims;
+    }
+
+    public void invalidateAll() {
+        if (cache != null) {
+            cache.invalidateAll();
+        }
+    }
+
+    private static Cache<TokenDigest, VerifiedClaims> crearCache(long maxSize) {
+        return Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new Expiry<TokenDigest, VerifiedClaims>() {
+                    @Override
+                    public long expireAfterCreate(TokenDigest key, VerifiedClaims value, long currentTime) {
+                        long restanteMs = value.getExpiration() == null ? 0
+                                : value.getExpiration().getTime() - System.currentTimeMillis();
+                        return TimeUnit.MILLISECONDS.toNanos(Math.max(restanteMs, 0));
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(TokenDigest key, VerifiedClaims value, long currentTime,
+                                                  long currentDuration) {
+                        return currentDuration;
+                    }
+
+                    @Override
+                    public long expireAfterRead(TokenDigest key, VerifiedClaims value, long currentTime,
+                                                long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * SHA-256 del token como cuatro longs: clave compacta, sin copiar el token.
+     */
+    record TokenDigest(long a, long b, long c, long d) {
+
+        static TokenDigest of(String token) {
+            MessageDigest md = SHA256.get();
+            ByteBuffer hash = ByteBuffer.wrap(md.digest(token.getBytes(StandardCharsets.US_ASCII)));
+            return new TokenDigest(hash.getLong(), hash.getLong(), hash.getLong(), hash.getLong());
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.dwes.security.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Lectura y escritura mínima de CSV (RFC 4180 sin saltos de línea dentro de los campos):
+ * separador ',', campos con ',' o '"' entre comillas dobles y '""' como comilla escapada.
+ */
+public final class Csv {
+
+    private Csv() {
+    }
+
+    public static List<String> parsearLinea(String linea) {
+        List<String> campos = new ArrayList<>();
+        StringBuilder actual = new StringBuilder();
+        boolean entreComillas = false;
+        for (int i = 0; i < linea.length(); i++) {
+            char c = linea.charAt(i);
+            if (entreComillas) {
+                if (c == '"' && i + 1 < linea.length() && linea.charAt(i + 1) == '"') {
+                    actual.append('"');
+                    i++;
+                } else if (c == '"') {
+                    entreComillas = false;
+                } else {
+                    actual.append(c);
+                }
+            } else if (c == '"') {
+                entreComillas = true;
+            } else if (c == ',') {
+                campos.add(actual.toString().trim());
+                actual.setLength(0);
+            } else {
+                actual.append(c);
+            }
+        }
+        campos.add(actual.toString().trim());
+        return campos;
+    }
+
+    /** Une los campos en una línea CSV (sin el salto de línea final); null se escribe vacío */
+    public static String linea(Object... campos) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < campos.length; i++) {
+            if (i > 0) {
+                sb.append(',');
+            }
+            String valor = campos[i] == null ? "" : campos[i].toString();
+            // Saltos de línea se sustituyen: cada registro debe ocupar una sola línea
+            valor = valor.replace('\r', ' ').replace('\n', ' ');
+            if (valor.indexOf(',') >= 0 || valor.indexOf('"') >= 0) {
+                sb.append('"').append(valor.replace("\"", "\"\"")).append('"');
+            } else {
+                sb.append(valor);
+            }
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,36 @@
+package com.dwes.security.util;
+
+/**
+ * ETag fuertes de recursos individuales a partir de su columna @Version.
+ */
+public final class ETags {
+
+    // Valor de If-Match que nunca coincide (etiqueta débil o con formato desconocido)
+    private static final long NINGUNA = -1;
+
+    private ETags() {
+    }
+
+    public static String deVersion(long version) {
+        return "\"" + version + "\"";
+    }
+
+    /**
+     * Versión exigida por un If-Match, o null si no hay condición (cabecera ausente o "*").
+     * Las etiquetas débiles no sirven para If-Match (RFC 9110, comparación fuerte).
+     */
+    public static Long versionDeIfMatch(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String etag = ifMatch.trim();
+        if (etag.length() < 3 || !etag.startsWith("\"") || !etag.endsWith("\"")) {
+            return NINGUNA;
+        }
+        try {
+            return Long.parseLong(etag.substring(1, etag.length() - 1));
+        } catch (NumberFormatException e) {
+            return NINGUNA;
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.dwes.security.util;
+
+/**
+ * Clave normalizada de un ISBN: siempre los 13 dígitos del ISBN-13.
+ *
+ * Un ISBN-10 se convierte anteponiendo "978" y recalculando el dígito de control,
+ * así que 0-306-40615-2 y 978-0-306-40615-7 dan la misma clave. Se ignoran guiones
+ * y espacios; no se comprueba el dígito de control de la entrada (la validación de
+ * Libro tampoco lo hace y hay datos que no lo cumplen).
+ */
+public final class Isbn {
+
+    private Isbn() {
+    }
+
+    /** Clave ISBN-13 de 'isbn', o IllegalArgumentException si no tiene forma de ISBN-10/13 */
+    public static String normalizar(String isbn) {
+        if (isbn == null) {
+            throw new IllegalArgumentException("ISBN vacío");
+        }
+        StringBuilder limpio = new StringBuilder(13);
+        for (int i = 0; i < isbn.length(); i++) {
+            char c = isbn.charAt(i);
+            if (c != '-' && c != ' ') {
+                limpio.append(Character.toUpperCase(c));
+            }
+        }
+        String s = limpio.toString();
+        if (s.matches("[0-9]{13}")) {
+            return s;
+        }
+        if (s.matches("[0-9]{9}[0-9X]")) {
+            String sinControl = "978" + s.substring(0, 9);
+            return sinControl + digitoControl13(sinControl);
+        }
+        throw new IllegalArgumentException("ISBN no válido: " + isbn);
+    }
+
+    /** Como normalizar, pero devuelve null en lugar de lanzar (datos ya guardados) */
+    public static String normalizarONull(String isbn) {
+        try {
+            return normalizar(isbn);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static char digitoControl13(String doceDigitos) {
+        int suma = 0;
+        for (int i = 0; i < 12; i++) {
+            int d = doceDigitos.charAt(i) - '0';
+            suma += (i % 2 == 0) ? d : 3 * d;
+        }
+        return (char) ('0' + (10 - suma % 10) % 10);
+    }
+}
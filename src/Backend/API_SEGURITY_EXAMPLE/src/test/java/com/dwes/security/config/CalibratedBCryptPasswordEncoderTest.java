@@ -0,0 +1,28 @@
+package com.dwes.security.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+class CalibratedBCryptPasswordEncoderTest {
+
+    @Test
+    void upgradeEncoding_soloPideRehashSiElCosteGuardadoEsMenor() {
+        CalibratedBCryptPasswordEncoder encoder = new CalibratedBCryptPasswordEncoder(5);
+
+        assertTrue(encoder.upgradeEncoding(new BCryptPasswordEncoder(4).encode("password123")));
+        // Otro nodo calibrado más alto: no se rebaja su hash
+        assertFalse(encoder.upgradeEncoding(new BCryptPasswordEncoder(6).encode("password123")));
+        assertFalse(encoder.upgradeEncoding(encoder.encode("password123")));
+    }
+
+    @Test
+    void calibrate_objetivoInalcanzable_devuelveElMinimo() {
+        assertEquals(4, CalibratedBCryptPasswordEncoder.calibrate(Duration.ZERO, 4, 12));
+    }
+}
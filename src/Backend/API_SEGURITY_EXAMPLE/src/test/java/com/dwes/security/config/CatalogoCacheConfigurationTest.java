@@ -0,0 +1,61 @@
+package com.dwes.security.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.cache.internal.DisabledCaching;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import jakarta.persistence.EntityManagerFactory;
+
+class CatalogoCacheConfigurationTest {
+
+    @Nested
+    @ActiveProfiles("test")
+    @SpringBootTest(properties = "catalogo.cache.backend=caffeine")
+    class Caffeine {
+
+        @Autowired
+        EntityManagerFactory entityManagerFactory;
+
+        @Test
+        void segundoNivelDeHibernateDesactivado() {
+            assertThat(entityManagerFactory.unwrap(SessionFactory.class).getCache())
+                    .isInstanceOf(DisabledCaching.class);
+        }
+    }
+
+    @Nested
+    @ActiveProfiles("test")
+    @SpringBootTest(properties = "catalogo.cache.backend=none")
+    class Ninguna {
+
+        @Autowired
+        EntityManagerFactory entityManagerFactory;
+
+        @Test
+        void segundoNivelDeHibernateDesactivado() {
+            assertThat(entityManagerFactory.unwrap(SessionFactory.class).getCache())
+                    .isInstanceOf(DisabledCaching.class);
+        }
+    }
+
+    @Nested
+    @ActiveProfiles("test")
+    @SpringBootTest(properties = "catalogo.cache.backend=hibernate")
+    class Hibernate {
+
+        @Autowired
+        EntityManagerFactory entityManagerFactory;
+
+        @Test
+        void segundoNivelDeHibernateActivoParaLibro() {
+            assertThat(entityManagerFactory.unwrap(SessionFactory.class).getCache())
+                    .isNotInstanceOf(DisabledCaching.class);
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.dwes.security.config;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
+
+import javax.crypto.SecretKey;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.AdditionalAnswers;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.dwes.security.entities.Role;
+import com.dwes.security.entities.Usuario;
+import com.dwes.security.repository.UserRepository;
+import com.dwes.security.service.UserService;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+
+@ActiveProfiles("test")
+@SpringBootTest(properties = "jwt.stateless.enabled=true")
+@AutoConfigureMockMvc
+class JwtAuthenticationFilterStatelessTest {
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Value("${jwt.secret}")
+    String jwtSecret;
+
+    @Autowired
+    UserRepository userRepository;
+
+    @SpyBean
+    UserService userService;
+
+    // Delegado real envuelto para comprobar cuándo el filtro va a la BD
+    UserDetailsService userDetailsService;
+
+    @BeforeEach
+    void setUp() {
+        userDetailsService = mock(UserDetailsService.class,
+                AdditionalAnswers.delegatesTo(userService.userDetailsService()));
+        doReturn(userDetailsService).when(userService).userDetailsService();
+    }
+
+    @Test
+    void getComidas_modoStateless_autenticaConLosRolesDelTokenSinUsuarioEnBD() throws Exception {
+        // El usuario no existe en la BD: solo puede autenticarse con los claims
+        String token = tokenConRoles("sin-bd@test.com", List.of("ROLE_USER"));
+
+        mockMvc.perform(get("/api/v1/comidas")
+                        .header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk());
+
+        verify(userDetailsService, never()).loadUserByUsername(any());
+    }
+
+    @Test
+    void getLibros_tokenSinRoles_noSeConfiaEnElToken() throws Exception {
+        String token = tokenConRoles("sin-bd@test.com", List.of());
+
+        // Sin roles en el token se va a la BD; el usuario no existe y la petición es anónima
+        mockMvc.perform(get("/api/v1/libros")
+                        .header("Authorization", "Bearer " + token))
+                .andExpect(status().isForbidden());
+
+        verify(userDetailsService).loadUserByUsername("sin-bd@test.com");
+    }
+
+    @Test
+    void getUsers_rutaDeRecheckPaths_usaLosRolesDeLaBDAunqueElTokenDigaOtraCosa() throws Exception {
+        // Usuario degradado después de emitir el token: en la BD ya sólo es ROLE_USER
+        userRepository.deleteAll();
+        Usuario usuario = new Usuario();
+        usuario.setFirstName("Ex");
+        usuario.setLastName("Admin");
+        usuario.setEmail("ex-admin@test.com");
+        usuario.setPassword("test");
+        usuario.setRoles(Set.of(Role.ROLE_USER));
+        userRepository.save(usuario);
+        String token = tokenConRoles("ex-admin@test.com", List.of("ROLE_ADMIN"));
+
+        // /api/v1/users/** está en jwt.stateless.recheck-paths: no vale el claim ROLE_ADMIN
+        mockMvc.perform(get("/api/v1/users")
+                        .header("Authorization", "Bearer " + token))
+                .andExpect(status().isForbidden());
+
+        verify(userDetailsService).loadUserByUsername("ex-admin@test.com");
+    }
+
+    private String tokenConRoles(String subject, List<String> roles) {
+        SecretKey key = Keys.hmacShaKeyFor(Decoders.BASE64URL.decode(jwtSecret));
+        Instant now = Instant.now();
+
+        return Jwts.builder()
+                .subject(subject)
+                .claim("roles", roles)
+                .issuedAt(Date.from(now))
+                .expiration(Date.from(now.plus(Duration.ofHours(2))))
+                .signWith(key)
+                .compact();
+    }
+}
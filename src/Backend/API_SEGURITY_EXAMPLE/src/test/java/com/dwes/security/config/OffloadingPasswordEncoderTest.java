@@ -0,0 +1,66 @@
+package com.dwes.security.config;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import com.dwes.security.error.exception.PasswordHashingUnavailableException;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class OffloadingPasswordEncoderTest {
+
+    @Test
+    void encodeYMatches_delegaEnBCrypt() {
+        OffloadingPasswordEncoder encoder = new OffloadingPasswordEncoder(new BCryptPasswordEncoder(4), 1, 1,
+                Duration.ofSeconds(5), new SimpleMeterRegistry());
+
+        String hash = encoder.encode("password123");
+
+        assertTrue(encoder.matches("password123", hash));
+        encoder.shutdown();
+    }
+
+    @Test
+    void encode_poolYColaLlenos_rechazaConPasswordHashingUnavailable() throws Exception {
+        CountDownLatch bloqueo = new CountDownLatch(1);
+        CountDownLatch ocupado = new CountDownLatch(1);
+        PasswordEncoder lento = new BCryptPasswordEncoder(4) {
+            @Override
+            public String encode(CharSequence rawPassword) {
+                ocupado.countDown();
+                try {
+                    bloqueo.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return super.encode(rawPassword);
+            }
+        };
+        OffloadingPasswordEncoder encoder = new OffloadingPasswordEncoder(lento, 1, 1,
+                Duration.ofSeconds(5), new SimpleMeterRegistry());
+        ExecutorService clientes = Executors.newFixedThreadPool(2);
+        try {
+            // Uno ocupa el único hilo del pool y otro la única plaza de la cola
+            clientes.submit(() -> encoder.encode("a"));
+            ocupado.await(5, TimeUnit.SECONDS);
+            clientes.submit(() -> encoder.encode("b"));
+            Thread.sleep(100);
+
+            assertThrows(PasswordHashingUnavailableException.class, () -> encoder.encode("c"));
+        } finally {
+            bloqueo.countDown();
+            clientes.shutdown();
+            encoder.shutdown();
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.dwes.security.controller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.dwes.security.repository.UserRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+@ActiveProfiles("test")
+@SpringBootTest
+@AutoConfigureMockMvc
+class AuthenticationControllerTest {
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Autowired
+    ObjectMapper objectMapper;
+
+    @Autowired
+    UserRepository userRepository;
+
+    String accessToken;
+    String refreshToken;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        userRepository.deleteAll();
+
+        String body = """
+                {"firstName":"Test","lastName":"Refresh","email":"refresh@test.com","password":"password123"}
+                """;
+        JsonNode json = objectMapper.readTree(mockMvc.perform(post("/api/v1/auth/signup")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.token").exists())
+                .andReturn().getResponse().getContentAsString());
+        accessToken = json.get("token").asText();
+        refreshToken = json.get("refreshToken").asText();
+    }
+
+    @Test
+    void refresh_rotaElRefreshTokenYDevuelveNuevoAcceso() throws Exception {
+        JsonNode json = refrescar(refreshToken, 200);
+
+        assertThat(json.get("token").asText()).isNotBlank();
+        assertThat(json.get("refreshToken").asText()).isNotEqualTo(refreshToken);
+        refrescar(json.get("refreshToken").asText(), 200);
+    }
+
+    @Test
+    void refresh_tokenReutilizado_401YRevocaLaFamilia() throws Exception {
+        String siguiente = refrescar(refreshToken, 200).get("refreshToken").asText();
+
+        refrescar(refreshToken, 401);
+        refrescar(siguiente, 401);
+    }
+
+    @Test
+    void refresh_tokenDesconocido_401() throws Exception {
+        refrescar("no-existe", 401);
+    }
+
+    @Test
+    void signout_sinCabeceraOSinBearer_400() throws Exception {
+        mockMvc.perform(post("/api/v1/auth/signout"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(post("/api/v1/auth/signout").header("Authorization", "Basic dXNlcjpwYXNz"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(post("/api/v1/auth/signout").header("Authorization", "Bearer "))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void signout_conRefreshToken_revocaSuFamilia() throws Exception {
+        String siguiente = refrescar(refreshToken, 200).get("refreshToken").asText();
+
+        mockMvc.perform(post("/api/v1/auth/signout")
+                        .header("Authorization", "Bearer " + accessToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(Map.of("refreshToken", siguiente))))
+                .andExpect(status().isNoContent());
+
+        refrescar(siguiente, 401);
+    }
+
+    @Test
+    void signout_sinCuerpo_revocaTodosLosRefreshTokensDelUsuario() throws Exception {
+        mockMvc.perform(post("/api/v1/auth/signout")
+                        .header("Authorization", "Bearer " + accessToken))
+                .andExpect(status().isNoContent());
+
+        refrescar(refreshToken, 401);
+    }
+
+    private JsonNode refrescar(String token, int esperado) throws Exception {
+        String body = objectMapper.writeValueAsString(Map.of("refreshToken", token));
+        String respuesta = mockMvc.perform(post("/api/v1/auth/refresh")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().is(esperado))
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(respuesta);
+    }
+}
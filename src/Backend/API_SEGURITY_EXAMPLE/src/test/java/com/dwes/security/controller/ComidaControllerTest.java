@@ -1,11 +1,14 @@
 package com.dwes.security.controller;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 import java.nio.charset.StandardCharsets;
@@ -24,6 +27,7 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
@@ -31,6 +35,7 @@ import org.springframework.test.web.servlet.MvcResult;
 import com.dwes.security.entities.Role;
 import com.dwes.security.entities.Usuario;
 import com.dwes.security.repository.UserRepository;
+import com.dwes.security.service.CatalogoVersiones;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
@@ -52,6 +57,12 @@ class ComidaControllerTest {
     @Autowired
     UserRepository userRepository;
 
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    CatalogoVersiones catalogoVersiones;
+
     @Value("${jwt.secret}")
     String jwtSecret;
 
@@ -108,6 +119,139 @@ class ComidaControllerTest {
                 .andExpect(jsonPath("$.content").isArray());
     }
 
+    @Test
+    void getComidas_withTotalApprox_200_sinTotalesDePage() throws Exception {
+        mockMvc.perform(get("/api/v1/comidas")
+                        .param("withTotal", "approx")
+                        .header("Authorization", "Bearer " + tokenUser))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content").isArray())
+                .andExpect(jsonPath("$.hasNext").isBoolean())
+                .andExpect(jsonPath("$.approxTotalElements").isNumber())
+                .andExpect(jsonPath("$.totalPages").doesNotExist());
+    }
+
+    @Test
+    void exportComidas_csv_conUser_200_yEscribeUnaLineaPorComida() throws Exception {
+        mockMvc.perform(post("/api/v1/comidas")
+                        .header("Authorization", "Bearer " + tokenAdmin)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"nombre\":\"Tacos, al pastor\",\"paisOrigen\":\"México\"}"))
+                .andExpect(status().isOk());
+
+        MvcResult async = mockMvc.perform(get("/api/v1/comidas/export")
+                        .param("format", "csv")
+                        .header("Authorization", "Bearer " + tokenUser))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String csv = mockMvc.perform(asyncDispatch(async))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Disposition", "attachment; filename=\"comidas.csv\""))
+                .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+
+        assertThat(csv).startsWith("id,nombre,paisOrigen\n");
+        assertThat(csv).contains(",\"Tacos, al pastor\",México\n");
+    }
+
+    @Test
+    void getComidaById_conIfNoneMatch_304_yPutConIfMatchAntiguo_412() throws Exception {
+        MvcResult creada = mockMvc.perform(post("/api/v1/comidas")
+                        .header("Authorization", "Bearer " + tokenAdmin)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"nombre\":\"Gazpacho\",\"paisOrigen\":\"España\"}"))
+                .andExpect(status().isOk())
+                .andReturn();
+        long id = objectMapper.readTree(creada.getResponse().getContentAsString()).get("id").asLong();
+
+        String etag = mockMvc.perform(get("/api/v1/comidas/{id}", id)
+                        .header("Authorization", "Bearer " + tokenUser))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("ETag");
+        assertThat(etag).isNotBlank();
+
+        mockMvc.perform(get("/api/v1/comidas/{id}", id)
+                        .header("Authorization", "Bearer " + tokenUser)
+                        .header("If-None-Match", etag))
+                .andExpect(status().isNotModified())
+                .andExpect(result -> assertThat(result.getResponse().getContentAsString()).isEmpty());
+
+        String actualizado = """
+                {"nombre":"Gazpacho andaluz","paisOrigen":"España"}
+                """;
+        String nuevoEtag = mockMvc.perform(put("/api/v1/comidas/{id}", id)
+                        .header("Authorization", "Bearer " + tokenAdmin)
+                        .header("If-Match", etag)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(actualizado))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("ETag");
+        assertThat(nuevoEtag).isNotEqualTo(etag);
+
+        // Segundo PUT con el ETag ya superado
+        mockMvc.perform(put("/api/v1/comidas/{id}", id)
+                        .header("Authorization", "Bearer " + tokenAdmin)
+                        .header("If-Match", etag)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(actualizado))
+                .andExpect(status().isPreconditionFailed());
+    }
+
+    @Test
+    void getComidas_conIfNoneMatch_304_hastaQueCambiaElCatalogo() throws Exception {
+        String etag = mockMvc.perform(get("/api/v1/comidas")
+                        .header("Authorization", "Bearer " + tokenUser))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("ETag");
+
+        mockMvc.perform(get("/api/v1/comidas")
+                        .header("Authorization", "Bearer " + tokenUser)
+                        .header("If-None-Match", etag))
+                .andExpect(status().isNotModified());
+
+        mockMvc.perform(post("/api/v1/comidas")
+                        .header("Authorization", "Bearer " + tokenAdmin)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"nombre\":\"Ramen\",\"paisOrigen\":\"Japón\"}"))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/api/v1/comidas")
+                        .header("Authorization", "Bearer " + tokenUser)
+                        .header("If-None-Match", etag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content").isArray());
+    }
+
+    @Test
+    void getComidas_withTotalInvalido_400_aunqueCoincidaElETag() throws Exception {
+        String etag = mockMvc.perform(get("/api/v1/comidas")
+                        .param("withTotal", "false")
+                        .header("Authorization", "Bearer " + tokenUser))
+                .andReturn().getResponse().getHeader("ETag");
+
+        mockMvc.perform(get("/api/v1/comidas")
+                        .param("withTotal", "quizas")
+                        .header("Authorization", "Bearer " + tokenUser)
+                        .header("If-None-Match", etag))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void getComidas_escrituraPorSqlDirecto_cambiaElETagAlRecalcularLaHuella() throws Exception {
+        String etag = mockMvc.perform(get("/api/v1/comidas")
+                        .header("Authorization", "Bearer " + tokenUser))
+                .andReturn().getResponse().getHeader("ETag");
+
+        // Alta que no pasa por el servicio (otra instancia, SQL directo)
+        jdbcTemplate.update("insert into comidas (nombre, pais_origen, version) values ('Pho', 'Vietnam', 0)");
+        catalogoVersiones.refrescarHuellas();
+
+        mockMvc.perform(get("/api/v1/comidas")
+                        .header("Authorization", "Bearer " + tokenUser)
+                        .header("If-None-Match", etag))
+                .andExpect(status().isOk());
+    }
+
     @Test
     void postComidas_conUser_403() throws Exception {
         String body = """
@@ -149,6 +293,78 @@ class ComidaControllerTest {
                 .andExpect(status().isNotFound());
     }
 
+    @Test
+    void getComidasPorIds_conUser_200_respetaElOrdenYListaLosInexistentes() throws Exception {
+        long primera = crearComidaYDevolverId("Paella", "España");
+        long segunda = crearComidaYDevolverId("Ramen", "Japón");
+
+        mockMvc.perform(get("/api/v1/comidas")
+                        .param("ids", segunda + ",999999," + primera + "," + segunda)
+                        .header("Authorization", "Bearer " + tokenUser))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(2))
+                .andExpect(jsonPath("$.content[0].id").value(segunda))
+                .andExpect(jsonPath("$.content[1].id").value(primera))
+                .andExpect(jsonPath("$.missing[0]").value(999999));
+    }
+
+    @Test
+    void getComidasPorCursor_conUser_200_sigueElNextCursorYRechazaSizeOCursorInvalidos() throws Exception {
+        crearComidaYDevolverId("Pizza", "Italia");
+        crearComidaYDevolverId("Curry", "India");
+
+        JsonNode primera = objectMapper.readTree(mockMvc.perform(get("/api/v1/comidas")
+                        .param("after", "0")
+                        .param("size", "1")
+                        .header("Authorization", "Bearer " + tokenUser))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.last").value(false))
+                .andReturn().getResponse().getContentAsString());
+        long idPrimera = primera.get("content").get(0).get("id").asLong();
+        String cursor = primera.get("nextCursor").asText();
+        // El cursor no es el id en claro
+        assertThat(cursor).isNotEqualTo(String.valueOf(idPrimera));
+
+        JsonNode segunda = objectMapper.readTree(mockMvc.perform(get("/api/v1/comidas")
+                        .param("after", cursor)
+                        .param("size", "100")
+                        .header("Authorization", "Bearer " + tokenUser))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString());
+        assertThat(segunda.get("content").get(0).get("id").asLong()).isGreaterThan(idPrimera);
+
+        mockMvc.perform(get("/api/v1/comidas")
+                        .param("after", "0")
+                        .param("size", String.valueOf(Integer.MAX_VALUE))
+                        .header("Authorization", "Bearer " + tokenUser))
+                .andExpect(status().isBadRequest());
+
+        mockMvc.perform(get("/api/v1/comidas")
+                        .param("after", "no-es-un-cursor")
+                        .header("Authorization", "Bearer " + tokenUser))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void getComidas_conFields_200_soloDevuelveIdYLosCamposPedidos() throws Exception {
+        crearComidaYDevolverId("Tacos", "México");
+
+        mockMvc.perform(get("/api/v1/comidas")
+                        .param("fields", "nombre")
+                        .header("Authorization", "Bearer " + tokenUser))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].id").exists())
+                .andExpect(jsonPath("$.content[0].nombre").exists())
+                .andExpect(jsonPath("$.content[0].paisOrigen").doesNotExist())
+                .andExpect(jsonPath("$.totalElements").exists())
+                .andExpect(jsonPath("$.pageable").doesNotExist());
+
+        mockMvc.perform(get("/api/v1/comidas")
+                        .param("fields", "nombre,precio")
+                        .header("Authorization", "Bearer " + tokenUser))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     void postComidas_jsonMalformado_conAdmin_400o500_detectaError() throws Exception {
         String body = """
@@ -0,0 +1,152 @@
+package com.dwes.security.controller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
+
+import javax.crypto.SecretKey;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.dwes.security.entities.Libro;
+import com.dwes.security.entities.Role;
+import com.dwes.security.entities.Usuario;
+import com.dwes.security.repository.LibroRepository;
+import com.dwes.security.repository.UserRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+
+@ActiveProfiles("test")
+@SpringBootTest
+@AutoConfigureMockMvc
+class LibrosControllerTest {
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Autowired
+    ObjectMapper objectMapper;
+
+    @Autowired
+    UserRepository userRepository;
+
+    @Autowired
+    LibroRepository libroRepository;
+
+    @Value("${jwt.secret}")
+    String jwtSecret;
+
+    String tokenUser;
+
+    @BeforeEach
+    void setUp() {
+        // Evita violación de unique(email) entre tests
+        userRepository.deleteAll();
+        Usuario user = new Usuario();
+        user.setFirstName("Test");
+        user.setLastName("User");
+        user.setEmail("user@test.com");
+        user.setPassword("test");
+        user.setRoles(Set.of(Role.ROLE_USER));
+        userRepository.save(user);
+
+        tokenUser = tokenConRoles("user@test.com", List.of("ROLE_USER"));
+    }
+
+    @AfterEach
+    void limpiar() {
+        libroRepository.deleteAll();
+    }
+
+    @Test
+    void getLibros_conFields_200_soloDevuelveIdYLosCamposPedidos() throws Exception {
+        crearLibro("Rayuela", "Julio Cortázar", "9788437604572");
+
+        mockMvc.perform(get("/api/v1/libros")
+                        .param("fields", "titulo")
+                        .header("Authorization", "Bearer " + tokenUser))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].id").exists())
+                .andExpect(jsonPath("$.content[0].titulo").value("Rayuela"))
+                .andExpect(jsonPath("$.content[0].autor").doesNotExist())
+                .andExpect(jsonPath("$.content[0].isbn").doesNotExist())
+                .andExpect(jsonPath("$.totalElements").value(1))
+                .andExpect(jsonPath("$.pageable").doesNotExist());
+
+        // isbn13 es interna (@JsonIgnore): tampoco se puede pedir por fields
+        mockMvc.perform(get("/api/v1/libros")
+                        .param("fields", "titulo,isbn13")
+                        .header("Authorization", "Bearer " + tokenUser))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void getLibros_conYSinFields_devuelvenLasFilasEnElMismoOrden() throws Exception {
+        crearLibro("Cosmos", "Carl Sagan", "0306406152");
+        crearLibro("Rayuela", "Julio Cortázar", "9788437604572");
+        crearLibro("Cien años de soledad", "García Márquez", "9780307474728");
+
+        List<Long> completos = idsDe(mockMvc.perform(get("/api/v1/libros")
+                        .param("size", "2")
+                        .header("Authorization", "Bearer " + tokenUser))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString());
+        List<Long> proyectados = idsDe(mockMvc.perform(get("/api/v1/libros")
+                        .param("size", "2")
+                        .param("fields", "titulo")
+                        .header("Authorization", "Bearer " + tokenUser))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString());
+
+        assertThat(completos).hasSize(2).isSorted().isEqualTo(proyectados);
+    }
+
+    private List<Long> idsDe(String json) throws Exception {
+        List<Long> ids = new ArrayList<>();
+        for (JsonNode fila : objectMapper.readTree(json).get("content")) {
+            ids.add(fila.get("id").asLong());
+        }
+        return ids;
+    }
+
+    private void crearLibro(String titulo, String autor, String isbn) {
+        Libro libro = new Libro();
+        libro.setTitulo(titulo);
+        libro.setAutor(autor);
+        libro.setIsbn(isbn);
+        libroRepository.save(libro);
+    }
+
+    private String tokenConRoles(String subject, List<String> roles) {
+        SecretKey key = Keys.hmacShaKeyFor(Decoders.BASE64URL.decode(jwtSecret));
+        Instant now = Instant.now();
+
+        return Jwts.builder()
+                .subject(subject)
+                .claim("roles", roles)
+                .issuedAt(Date.from(now))
+                .expiration(Date.from(now.plus(Duration.ofHours(2))))
+                .signWith(key)
+                .compact();
+    }
+}
@@ -2,11 +2,13 @@ package com.dwes.security.repository;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
+import java.util.List;
 import java.util.Optional;
 
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Limit;
 import org.springframework.test.context.ActiveProfiles;
 
 import com.dwes.security.entities.Comida;
@@ -40,4 +42,17 @@ class ComidaRepositoryTest {
         assertThat(encontrada.get().getNombre()).isEqualTo("Sushi");
         assertThat(encontrada.get().getPaisOrigen()).isEqualTo("Japón");
     }
-}
\ No newline at end of file
+
+    @Test
+    void findByIdGreaterThanOrderByIdAsc_devuelveLaSiguientePaginaPorCursor() {
+        Comida primera = comidaRepository.save(new Comida("Paella", "España"));
+        Comida segunda = comidaRepository.save(new Comida("Sushi", "Japón"));
+        Comida tercera = comidaRepository.save(new Comida("Tacos", "México"));
+
+        List<Comida> pagina = comidaRepository.findByIdGreaterThanOrderByIdAsc(primera.getId(), Limit.of(1));
+
+        assertThat(pagina).extracting(Comida::getId).containsExactly(segunda.getId());
+        assertThat(comidaRepository.findByIdGreaterThanOrderByIdAsc(segunda.getId(), Limit.of(5)))
+                .extracting(Comida::getId).containsExactly(tercera.getId());
+    }
+}
@@ -0,0 +1,84 @@
+package com.dwes.security.service.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class SingleFlightTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    private final SingleFlight<Long, String> singleFlight = new SingleFlight<>("libros", registry);
+
+    @Test
+    void ejecutar_llamadasConcurrentesDeLaMismaClave_compartenUnaSolaCarga() throws Exception {
+        int hilos = 8;
+        AtomicInteger cargas = new AtomicInteger();
+        CountDownLatch dentro = new CountDownLatch(1);
+        CountDownLatch soltar = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(hilos);
+        try {
+            Future<String> lider = pool.submit(() -> singleFlight.ejecutar(1L, () -> {
+                cargas.incrementAndGet();
+                dentro.countDown();
+                esperar(soltar);
+                return "libro-1";
+            }));
+            dentro.await(5, TimeUnit.SECONDS);
+
+            List<Future<String>> seguidores = new ArrayList<>();
+            for (int i = 1; i < hilos; i++) {
+                seguidores.add(pool.submit(() -> singleFlight.ejecutar(1L, () -> {
+                    cargas.incrementAndGet();
+                    return "otra carga";
+                })));
+            }
+            // Los seguidores se registran antes de soltar al líder
+            while (registry.counter("catalogo.singleflight.coalesced", "cache", "libros").count() < hilos - 1) {
+                Thread.onSpinWait();
+            }
+            soltar.countDown();
+
+            assertThat(lider.get(5, TimeUnit.SECONDS)).isEqualTo("libro-1");
+            for (Future<String> seguidor : seguidores) {
+                assertThat(seguidor.get(5, TimeUnit.SECONDS)).isEqualTo("libro-1");
+            }
+            assertThat(cargas.get()).isEqualTo(1);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void ejecutar_trasTerminarLaCarga_laSiguienteLlamadaCargaDeNuevo() {
+        AtomicInteger cargas = new AtomicInteger();
+
+        singleFlight.ejecutar(2L, () -> "v" + cargas.incrementAndGet());
+        String segunda = singleFlight.ejecutar(2L, () -> "v" + cargas.incrementAndGet());
+
+        assertThat(segunda).isEqualTo("v2");
+        assertThrows(IllegalStateException.class,
+                () -> singleFlight.ejecutar(3L, () -> { throw new IllegalStateException("fallo"); }));
+        assertThat(registry.counter("catalogo.singleflight.coalesced", "cache", "libros").count()).isZero();
+    }
+
+    private static void esperar(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
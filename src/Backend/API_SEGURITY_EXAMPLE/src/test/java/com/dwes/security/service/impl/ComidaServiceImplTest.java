@@ -4,9 +4,11 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.time.Duration;
 import java.util.List;
 import java.util.Optional;
 
@@ -14,15 +16,22 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
 import com.dwes.security.entities.Comida;
 import com.dwes.security.error.exception.ComidaNotFoundException;
 import com.dwes.security.repository.ComidaRepository;
+import com.dwes.security.service.CatalogoVersiones;
+import com.dwes.security.service.cache.CachePorId;
+import com.dwes.security.service.cache.CatalogoFiltros;
+import com.dwes.security.service.search.ComidaSearchIndex;
 
 @ExtendWith(MockitoExtension.class)
 class ComidasServiceImplTest {
@@ -30,6 +39,20 @@ class ComidasServiceImplTest {
     @Mock
     private ComidaRepository comidaRepository;
 
+    @Mock
+    private ComidaSearchIndex comidaSearchIndex;
+
+    @Mock
+    private CatalogoVersiones catalogoVersiones;
+
+    @Spy
+    private CachePorId<Comida> comidaCache = CachePorId.caffeine("comidas", 100, Duration.ofMinutes(1),
+            new SimpleMeterRegistry());
+
+    @Spy
+    private CatalogoFiltros catalogoFiltros = new CatalogoFiltros(1000, 0.01, 1000, Duration.ofMinutes(1),
+            new SimpleMeterRegistry());
+
     @InjectMocks
     private ComidasServiceImpl comidasService;
 
@@ -41,6 +64,51 @@ class ComidasServiceImplTest {
         assertThrows(ComidaNotFoundException.class, () -> comidasService.obtenerComidaPorId(idInexistente));
     }
 
+    @Test
+    void obtenerComidaPorId_idSinAusenciaConfirmada_seConsultaEnLaBD() {
+        // Alta hecha por otra instancia o por SQL directo: nada en esta instancia la conoce
+        Comida ajena = new Comida("Sushi", "Japón");
+        ajena.setId(5L);
+        when(comidaRepository.findById(5L)).thenReturn(Optional.of(ajena));
+
+        assertSame(ajena, comidasService.obtenerComidaPorId(5L));
+    }
+
+    @Test
+    void obtenerComidaPorId_idAusenteRepetido_noVuelveAConsultarHastaQueSeDaDeAlta() {
+        Comida nueva = new Comida("Pizza", "Italia");
+        nueva.setId(999L);
+        when(comidaRepository.findById(999L)).thenReturn(Optional.empty());
+        when(comidaRepository.save(nueva)).thenReturn(nueva);
+
+        assertThrows(ComidaNotFoundException.class, () -> comidasService.obtenerComidaPorId(999L));
+        assertThrows(ComidaNotFoundException.class, () -> comidasService.obtenerComidaPorId(999L));
+        verify(comidaRepository, times(1)).findById(999L);
+
+        // El alta retira el id de la caché negativa
+        comidasService.agregarComida(nueva);
+        when(comidaRepository.findById(999L)).thenReturn(Optional.of(nueva));
+        assertSame(nueva, comidasService.obtenerComidaPorId(999L));
+    }
+
+    @Test
+    void obtenerComidaPorId_segundaLecturaSaleDeLaCacheHastaQueSeActualiza() {
+        Comida existente = new Comida("Pizza", "Italia");
+        existente.setId(7L);
+        when(comidaRepository.findById(7L)).thenReturn(Optional.of(existente));
+        when(comidaRepository.save(existente)).thenReturn(existente);
+
+        assertSame(existente, comidasService.obtenerComidaPorId(7L));
+        assertSame(existente, comidasService.obtenerComidaPorId(7L));
+        verify(comidaRepository, times(1)).findById(7L);
+
+        comidasService.actualizarComida(7L, new Comida("Pizza napolitana", "Italia"));
+        comidasService.obtenerComidaPorId(7L);
+
+        // findById de actualizar (sin caché) + recarga tras la invalidación
+        verify(comidaRepository, times(3)).findById(7L);
+    }
+
     @Test
     void agregarComida_guardaYDevuelveComida() {
         Comida entrada = new Comida("Tortilla", "España");
@@ -118,4 +186,14 @@ class ComidasServiceImplTest {
         assertEquals(1, resultado.getTotalElements());
         assertEquals("Paella", resultado.getContent().get(0).getNombre());
     }
-}
\ No newline at end of file
+
+    @Test
+    void totalAproximadoComidas_cuentaUnaVezYReutilizaElValor() {
+        when(comidaRepository.count()).thenReturn(42L);
+
+        assertEquals(42L, comidasService.totalAproximadoComidas());
+        assertEquals(42L, comidasService.totalAproximadoComidas());
+
+        verify(comidaRepository, times(1)).count();
+    }
+}
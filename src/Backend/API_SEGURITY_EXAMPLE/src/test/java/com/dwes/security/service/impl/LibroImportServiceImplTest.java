@@ -0,0 +1,130 @@
+package com.dwes.security.service.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.dwes.security.dto.response.BulkImportResponse;
+import com.dwes.security.repository.LibroRepository;
+import com.dwes.security.service.FormatoFichero;
+import com.dwes.security.service.LibroImportService;
+import com.dwes.security.service.LibrosService;
+
+@ActiveProfiles("test")
+@SpringBootTest(properties = "catalogo.import.batch-size=500")
+class LibroImportServiceImplTest {
+
+    @Autowired
+    LibroImportService libroImportService;
+
+    @Autowired
+    LibroRepository libroRepository;
+
+    @Autowired
+    LibrosService librosService;
+
+    @Autowired
+    LibrosServiceImpl librosServiceImpl;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void limpiar() {
+        libroRepository.deleteAll();
+    }
+
+    @Test
+    void importarNdjson_insertaPorLotesYDevuelveErroresPorFila() throws Exception {
+        StringBuilder ndjson = new StringBuilder();
+        for (int i = 0; i < 5_000; i++) {
+            ndjson.append(String.format("{\"titulo\":\"Libro %d\",\"autor\":\"Autor %d\",\"isbn\":\"978%010d\"}%n", i, i, i));
+        }
+        ndjson.append("{\"titulo\":\"Repetido\",\"autor\":\"X\",\"isbn\":\"9780000000000\"}\n"); // línea 5001
+        ndjson.append("{\"titulo\":\"\",\"autor\":\"X\",\"isbn\":\"123\"}\n");                    // línea 5002
+        ndjson.append("esto no es json\n");                                                      // línea 5003
+
+        BulkImportResponse respuesta = importar(ndjson.toString(), FormatoFichero.NDJSON);
+
+        assertThat(respuesta.getProcesadas()).isEqualTo(5_003);
+        assertThat(respuesta.getInsertadas()).isEqualTo(5_000);
+        assertThat(respuesta.getFallidas()).isEqualTo(3);
+        assertThat(respuesta.getErrores()).extracting(BulkImportResponse.ErrorFila::getLinea)
+                .containsExactly(5_001L, 5_002L, 5_003L);
+        assertThat(libroRepository.count()).isEqualTo(5_000);
+    }
+
+    @Test
+    void importarCsv_saltaCabeceraYRechazaIsbnYaExistente() throws Exception {
+        importar("titulo,autor,isbn\nCien años de soledad,García Márquez,9780307474728\n", FormatoFichero.CSV);
+
+        BulkImportResponse respuesta = importar("""
+                titulo,autor,isbn
+                "Rayuela, edición conmemorativa",Julio Cortázar,9788437604572
+                Cien años de soledad,García Márquez,9780307474728
+                Solo dos columnas,X
+                """, FormatoFichero.CSV);
+
+        assertThat(respuesta.getInsertadas()).isEqualTo(1);
+        assertThat(respuesta.getErrores()).extracting(BulkImportResponse.ErrorFila::getLinea)
+                .containsExactlyInAnyOrder(3L, 4L);
+        assertThat(libroRepository.findAll()).extracting("titulo")
+                .contains("Rayuela, edición conmemorativa");
+    }
+
+    @Test
+    void isbn10YSuIsbn13_seTratanComoElMismoLibro() throws Exception {
+        importar("titulo,autor,isbn\nCosmos,Carl Sagan,0306406152\n", FormatoFichero.CSV);
+
+        BulkImportResponse respuesta = importar("titulo,autor,isbn\nCosmos (2ª ed.),Carl Sagan,9780306406157\n",
+                FormatoFichero.CSV);
+
+        assertThat(respuesta.getInsertadas()).isZero();
+        assertThat(librosService.obtenerLibroPorIsbn("978-0-306-40615-7").getTitulo()).isEqualTo("Cosmos");
+        assertThat(librosService.existenIsbns(List.of("0-306-40615-2", "9780307474728", "no-es-isbn")))
+                .containsExactly(entry("0-306-40615-2", true), entry("9780307474728", false), entry("no-es-isbn", false));
+    }
+
+    @Test
+    void importarCsv_sinCabecera_noDescartaUnTituloQueEmpiezaPorTitulo() throws Exception {
+        BulkImportResponse respuesta = importar("""
+                Titulos de nobleza,Ana Pérez,9788437604572
+                Cosmos,Carl Sagan,0306406152
+                """, FormatoFichero.CSV);
+
+        assertThat(respuesta.getInsertadas()).isEqualTo(2);
+        // Indexados al importar, sin reconstruir el índice desde la tabla
+        assertThat(librosService.buscarLibros("nobleza", 10)).extracting("titulo").containsExactly("Titulos de nobleza");
+        assertThat(librosService.sugerirTitulos("cosm", 10)).containsExactly("Cosmos");
+    }
+
+    @Test
+    void completarIsbn13_rellenaLaClaveSinCambiarLaVersion() {
+        // Filas anteriores a la columna isbn13
+        jdbcTemplate.update("insert into libros (titulo, autor, isbn, version) values ('Cosmos', 'Carl Sagan', '0306406152', 3)");
+        jdbcTemplate.update("insert into libros (titulo, autor, isbn, version) values ('Roto', 'X', 'no-es-isbn', 1)");
+
+        librosServiceImpl.completarIsbn13();
+
+        Map<String, Object> cosmos = jdbcTemplate.queryForMap("select isbn13, version from libros where titulo = 'Cosmos'");
+        assertThat(cosmos.get("ISBN13")).isEqualTo("9780306406157");
+        assertThat(((Number) cosmos.get("VERSION")).intValue()).isEqualTo(3);
+        assertThat(jdbcTemplate.queryForObject("select isbn13 from libros where titulo = 'Roto'", String.class)).isNull();
+    }
+
+    private BulkImportResponse importar(String contenido, FormatoFichero formato) throws Exception {
+        return libroImportService.importarLibros(
+                new ByteArrayInputStream(contenido.getBytes(StandardCharsets.UTF_8)), formato);
+    }
+}
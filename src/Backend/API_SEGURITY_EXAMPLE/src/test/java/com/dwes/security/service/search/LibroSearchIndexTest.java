@@ -0,0 +1,82 @@
+package com.dwes.security.service.search;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.dwes.security.entities.Libro;
+import com.dwes.security.repository.LibroRepository;
+
+class LibroSearchIndexTest {
+
+    private LibroSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new LibroSearchIndex();
+        index.indexar(libro(1L, "Cien años de soledad", "Gabriel García Márquez"));
+        index.indexar(libro(2L, "El amor en los tiempos del cólera", "Gabriel García Márquez"));
+        index.indexar(libro(3L, "La sombra del viento", "Carlos Ruiz Zafón"));
+    }
+
+    @Test
+    void buscar_ignoraTildesYMayusculas() {
+        assertThat(index.buscar("COLERA", 10)).extracting(Libro::getId).containsExactly(2L);
+        assertThat(index.buscar("zafon", 10)).extracting(Libro::getId).containsExactly(3L);
+        assertThat(index.buscar("anos", 10)).extracting(Libro::getId).containsExactly(1L);
+    }
+
+    @Test
+    void buscar_ordenaPorRelevancia() {
+        // "soledad" sólo aparece en el 1; "garcia" en el 1 y el 2
+        assertThat(index.buscar("garcia soledad", 10)).extracting(Libro::getId).containsExactly(1L, 2L);
+    }
+
+    @Test
+    void indexarYEliminar_mantienenElIndiceAlDia() {
+        index.indexar(libro(3L, "Marina", "Carlos Ruiz Zafón"));
+        index.eliminar(1L);
+
+        assertThat(index.buscar("sombra", 10)).isEmpty();
+        assertThat(index.buscar("marina", 10)).extracting(Libro::getId).containsExactly(3L);
+        assertThat(index.buscar("soledad", 10)).isEmpty();
+        assertThat(index.size()).isEqualTo(2);
+    }
+
+    @Test
+    void reconstruir_conservaLasEscriturasQueLleganDuranteLaLectura() {
+        LibroRepository repositorio = mock(LibroRepository.class);
+        ReflectionTestUtils.setField(index, "libroRepository", repositorio);
+        // La lectura de la tabla no ve el libro 4 ni el borrado del 2, que llegan mientras se hace
+        when(repositorio.findAll()).thenAnswer(invocacion -> {
+            index.indexar(libro(4L, "Marina", "Carlos Ruiz Zafón"));
+            index.eliminar(2L);
+            return List.of(libro(1L, "Cien años de soledad", "Gabriel García Márquez"),
+                    libro(2L, "El amor en los tiempos del cólera", "Gabriel García Márquez"));
+        });
+
+        index.reconstruir();
+
+        assertThat(index.buscar("marina", 10)).extracting(Libro::getId).containsExactly(4L);
+        assertThat(index.buscar("colera", 10)).isEmpty();
+        assertThat(index.buscar("sombra", 10)).isEmpty();
+        assertThat(index.sugerirTitulos("mar", 10)).containsExactly("Marina");
+        assertThat(index.sugerirTitulos("el amor", 10)).isEmpty();
+        assertThat(index.size()).isEqualTo(2);
+    }
+
+    private static Libro libro(Long id, String titulo, String autor) {
+        Libro libro = new Libro();
+        libro.setId(id);
+        libro.setTitulo(titulo);
+        libro.setAutor(autor);
+        libro.setIsbn("978000000000" + id);
+        return libro;
+    }
+}
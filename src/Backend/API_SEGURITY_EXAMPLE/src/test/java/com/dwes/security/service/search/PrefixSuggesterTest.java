@@ -0,0 +1,47 @@
+package com.dwes.security.service.search;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class PrefixSuggesterTest {
+
+    private PrefixSuggester suggester;
+
+    @BeforeEach
+    void setUp() {
+        suggester = new PrefixSuggester();
+        suggester.reconstruir(Map.of(
+                1L, "Paella valenciana",
+                2L, "Pastel de nata",
+                3L, "Páprika asada",
+                4L, "Sushi",
+                5L, "Paella valenciana"));
+    }
+
+    @Test
+    void sugerir_devuelveCompletadosEnOrdenSinDistinguirTildes() {
+        assertThat(suggester.sugerir("PA", 10))
+                .containsExactly("Paella valenciana", "Páprika asada", "Pastel de nata");
+        assertThat(suggester.sugerir("pap", 10)).containsExactly("Páprika asada");
+        assertThat(suggester.sugerir("pa", 1)).containsExactly("Paella valenciana");
+        assertThat(suggester.sugerir("x", 10)).isEmpty();
+    }
+
+    @Test
+    void ponerYQuitar_actualizanLaInstantanea() {
+        suggester.poner(4L, "Sopa de ajo");
+        suggester.quitar(1L);
+
+        assertThat(suggester.sugerir("su", 10)).isEmpty();
+        assertThat(suggester.sugerir("so", 10)).containsExactly("Sopa de ajo");
+        // El id 5 sigue usando el mismo título
+        assertThat(suggester.sugerir("pae", 10)).containsExactly("Paella valenciana");
+
+        suggester.quitar(5L);
+        assertThat(suggester.sugerir("pae", 10)).isEmpty();
+    }
+}
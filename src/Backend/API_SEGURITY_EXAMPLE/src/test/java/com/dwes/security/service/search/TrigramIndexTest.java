@@ -0,0 +1,57 @@
+package com.dwes.security.service.search;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class TrigramIndexTest {
+
+    private TrigramIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new TrigramIndex();
+        index.reconstruir(Map.of(
+                1L, "Paella valenciana",
+                2L, "Pastel de nata",
+                3L, "Sushi",
+                4L, "Tortilla de patatas"));
+    }
+
+    @Test
+    void buscar_toleraErratasYTildes() {
+        assertThat(index.buscar("paela", 2, 10)).extracting(TrigramIndex.Match::id).first().isEqualTo(1L);
+        assertThat(index.buscar("payella", 2, 10)).extracting(TrigramIndex.Match::id).contains(1L);
+        assertThat(index.buscar("TORTIYA", 2, 10)).extracting(TrigramIndex.Match::id).containsExactly(4L);
+        assertThat(index.buscar("susi", 1, 10)).extracting(TrigramIndex.Match::id).containsExactly(3L);
+    }
+
+    @Test
+    void buscar_ordenaPorDistanciaYRespetaElMaximo() {
+        assertThat(index.buscar("sushi", 0, 10))
+                .containsExactly(new TrigramIndex.Match(3L, 0, 1.0));
+        assertThat(index.buscar("pastel de nata", 2, 10)).extracting(TrigramIndex.Match::id).first().isEqualTo(2L);
+        assertThat(index.buscar("zzzz", 3, 10)).isEmpty();
+        assertThat(index.buscar("paela", 2, 1)).hasSize(1);
+    }
+
+    @Test
+    void ponerYQuitar_actualizanElIndice() {
+        index.poner(3L, "Sopa de ajo");
+        index.quitar(1L);
+
+        assertThat(index.buscar("sushi", 1, 10)).isEmpty();
+        assertThat(index.buscar("sopa de ajo", 0, 10)).extracting(TrigramIndex.Match::id).containsExactly(3L);
+        assertThat(index.buscar("paella", 0, 10)).isEmpty();
+    }
+
+    @Test
+    void levenshtein_cortaAlSuperarElMaximo() {
+        assertThat(TrigramIndex.levenshtein("paella", "paela", 2)).isEqualTo(1);
+        assertThat(TrigramIndex.levenshtein("kitten", "sitting", 5)).isEqualTo(3);
+        assertThat(TrigramIndex.levenshtein("abc", "xyzxyz", 1)).isEqualTo(2);
+    }
+}
@@ -0,0 +1,111 @@
+package com.dwes.security.service.user.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import com.dwes.security.entities.Role;
+import com.dwes.security.entities.Usuario;
+import com.dwes.security.service.user.VerifiedClaims;
+
+import io.jsonwebtoken.JwtException;
+
+class JwtServiceImplTest {
+
+    private static final String SECRET = "DaYZnjYsiC-sm09XbDIln3U-Av1G2a3cQUfWzoSLmbY";
+    private static final String OTRO_SECRET = "q3Yk0mVb8o2y6PZr1tXc4nJf7HsLwA9eGdUiKxQzTvE";
+
+    private JwtServiceImpl jwtService;
+    private Usuario usuario;
+
+    @BeforeEach
+    void setUp() {
+        jwtService = new JwtServiceImpl();
+        ReflectionTestUtils.setField(jwtService, "jwtExpiration", 60000L);
+        jwtService.reloadSigningKey(SECRET);
+
+        usuario = new Usuario();
+        usuario.setEmail("user@test.com");
+        usuario.setRoles(Set.of(Role.ROLE_USER));
+    }
+
+    @Test
+    void verifyToken_tokenValido_devuelveSubjectRolesYExpiracion() {
+        String token = jwtService.generateToken(usuario);
+
+        VerifiedClaims claims = jwtService.verifyToken(token);
+
+        assertEquals("user@test.com", claims.getSubject());
+        assertEquals(List.of("ROLE_USER"), claims.getRoles());
+        assertFalse(claims.isExpired());
+        assertTrue(jwtService.isTokenValid(token, usuario));
+    }
+
+    @Test
+    void verifyToken_firmaAlterada_lanzaJwtException() {
+        String token = jwtService.generateToken(usuario);
+        String alterado = token.substring(0, token.length() - 2) + (token.endsWith("A") ? "BB" : "AA");
+
+        assertThrows(JwtException.class, () -> jwtService.verifyToken(alterado));
+    }
+
+    @Test
+    void reloadSigningKey_firmaConLaNuevaYAceptaTokensDeLaAnterior() {
+        String tokenAntiguo = jwtService.generateToken(usuario);
+
+        jwtService.reloadSigningKey(OTRO_SECRET);
+        String tokenNuevo = jwtService.generateToken(usuario);
+
+        assertEquals("user@test.com", jwtService.verifyToken(tokenNuevo).getSubject());
+        assertEquals("user@test.com", jwtService.verifyToken(tokenAntiguo).getSubject());
+    }
+
+    @Test
+    void reloadSigningKey_pasadoJwtExpiration_rechazaTokensDeLaAnterior() {
+        String tokenAntiguo = jwtService.generateToken(usuario);
+
+        // Con jwt.expiration=0 la llave saliente queda retirada en el momento de rotar
+        ReflectionTestUtils.setField(jwtService, "jwtExpiration", 0L);
+        jwtService.reloadSigningKey(OTRO_SECRET);
+
+        assertThrows(JwtException.class, () -> jwtService.verifyToken(tokenAntiguo));
+    }
+
+    @Test
+    void reloadSigningKey_retirandoLaAnterior_rechazaSusTokensYa() {
+        String tokenAntiguo = jwtService.generateToken(usuario);
+
+        jwtService.reloadSigningKey(OTRO_SECRET, true);
+
+        assertThrows(JwtException.class, () -> jwtService.verifyToken(tokenAntiguo));
+        assertEquals("user@test.com", jwtService.verifyToken(jwtService.generateToken(usuario)).getSubject());
+    }
+
+    @Test
+    void reloadSigningKey_claveCorta_lanzaIllegalArgumentException() {
+        assertThrows(IllegalArgumentException.class, () -> jwtService.reloadSigningKey("c2hvcnQ"));
+    }
+
+    @Test
+    void verifyToken_conCacheActiva_devuelveLosMismosClaimsSinReverificar() {
+        ReflectionTestUtils.setField(jwtService, "tokenCache",
+                new VerifiedTokenCache(true, 100, new SimpleMeterRegistry()));
+        String token = jwtService.generateToken(usuario);
+
+        VerifiedClaims primera = jwtService.verifyToken(token);
+        VerifiedClaims segunda = jwtService.verifyToken(token);
+
+        assertSame(primera, segunda);
+    }
+}
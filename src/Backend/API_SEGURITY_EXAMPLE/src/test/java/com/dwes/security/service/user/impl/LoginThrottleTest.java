@@ -0,0 +1,76 @@
+package com.dwes.security.service.user.impl;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.dwes.security.error.exception.TooManyLoginAttemptsException;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class LoginThrottleTest {
+
+    private final AtomicLong reloj = new AtomicLong();
+    private LoginThrottle throttle;
+
+    @BeforeEach
+    void setUp() {
+        throttle = new LoginThrottle(true,
+                new LoginThrottle.Limite(3, Duration.ofSeconds(10)),
+                new LoginThrottle.Limite(5, Duration.ofSeconds(2)),
+                Duration.ofMinutes(1), 1000, 4, reloj::get, new SimpleMeterRegistry());
+    }
+
+    @Test
+    void check_emailAgotado_lanza429ConRetryAfterYSeRecupera() {
+        for (int i = 0; i < 3; i++) {
+            throttle.check("User@Test.com", "10.0.0." + i);
+        }
+
+        TooManyLoginAttemptsException ex = assertThrows(TooManyLoginAttemptsException.class,
+                () -> throttle.check("user@test.com", "10.0.0.9"));
+        assertEquals(10, ex.getRetryAfterSeconds());
+
+        reloj.addAndGet(Duration.ofSeconds(10).toNanos());
+        assertDoesNotThrow(() -> throttle.check("user@test.com", "10.0.0.9"));
+    }
+
+    @Test
+    void check_ipAgotada_rechazaAunqueCambieElEmail() {
+        for (int i = 0; i < 5; i++) {
+            throttle.check("user" + i + "@test.com", "10.0.0.1");
+        }
+
+        assertThrows(TooManyLoginAttemptsException.class, () -> throttle.check("otro@test.com", "10.0.0.1"));
+        assertDoesNotThrow(() -> throttle.check("otro@test.com", "10.0.0.2"));
+    }
+
+    @Test
+    void check_bucketsInactivos_seDescartan() {
+        // Un solo stripe: el resultado no depende de a qué stripe va cada clave
+        LoginThrottle unStripe = new LoginThrottle(true,
+                new LoginThrottle.Limite(3, Duration.ofSeconds(10)),
+                new LoginThrottle.Limite(5, Duration.ofSeconds(2)),
+                Duration.ofMinutes(1), 1000, 1, reloj::get, new SimpleMeterRegistry());
+        for (int i = 0; i < 100; i++) {
+            unStripe.check("user" + i + "@test.com", "10.0.0." + i);
+        }
+        assertEquals(200, unStripe.size());
+
+        reloj.addAndGet(Duration.ofSeconds(30).toNanos());
+        unStripe.check("reciente@test.com", "10.1.0.1");
+        assertEquals(202, unStripe.size());
+
+        // Los 200 primeros llevan 70s inactivos (> 1 min); los de "reciente", 40s
+        reloj.addAndGet(Duration.ofSeconds(40).toNanos());
+        unStripe.check("nuevo@test.com", "10.1.0.2");
+
+        assertEquals(4, unStripe.size());
+    }
+}
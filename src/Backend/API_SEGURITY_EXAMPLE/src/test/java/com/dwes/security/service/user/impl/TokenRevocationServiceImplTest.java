@@ -0,0 +1,67 @@
+package com.dwes.security.service.user.impl;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.dwes.security.entities.RevokedToken;
+import com.dwes.security.repository.RevokedTokenRepository;
+import com.dwes.security.service.user.VerifiedClaims;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class TokenRevocationServiceImplTest {
+
+    private RevokedTokenRepository repository;
+    private TokenRevocationServiceImpl service;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(RevokedTokenRepository.class);
+        service = new TokenRevocationServiceImpl(repository, 1000, 0.01, new SimpleMeterRegistry());
+    }
+
+    @Test
+    void revoke_persisteYMarcaElTokenComoRevocado() {
+        VerifiedClaims claims = claims("jti-1", 60_000);
+        VerifiedClaims otro = claims("jti-2", 60_000);
+
+        service.revoke(claims);
+
+        verify(repository).save(any(RevokedToken.class));
+        assertTrue(service.isRevoked(claims));
+        assertFalse(service.isRevoked(otro));
+    }
+
+    @Test
+    void refrescar_cargaLasRevocacionesVigentesDeLaTabla() {
+        when(repository.findByExpiresAtAfter(any())).thenReturn(List.of(
+                new RevokedToken("jti-bd", Instant.now().plusSeconds(60), "user@test.com")));
+
+        service.refrescar();
+
+        assertTrue(service.isRevoked(claims("jti-bd", 60_000)));
+        verify(repository).deleteByExpiresAtBefore(any());
+    }
+
+    @Test
+    void revoke_tokenSinJti_lanzaIllegalArgumentException() {
+        assertThrows(IllegalArgumentException.class, () -> service.revoke(claims(null, 60_000)));
+    }
+
+    private static VerifiedClaims claims(String jti, long msHastaExp) {
+        return new VerifiedClaims("user@test.com", new Date(System.currentTimeMillis() + msHastaExp),
+                List.of("ROLE_USER"), 1, jti);
+    }
+}
@@ -0,0 +1,69 @@
+package com.dwes.security.service.user.impl;
+
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.dwes.security.entities.Usuario;
+import com.dwes.security.repository.UserRepository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class UserServiceImplTest {
+
+    private UserRepository userRepository;
+    private UserServiceImpl userService;
+
+    @BeforeEach
+    void setUp() {
+        userRepository = mock(UserRepository.class);
+        userService = new UserServiceImpl(Duration.ofMinutes(5), 100, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(userService, "userRepository", userRepository);
+    }
+
+    @Test
+    void loadUserByUsername_segundaLlamada_seSirveDesdeLaCache() {
+        Usuario usuario = new Usuario();
+        usuario.setEmail("user@test.com");
+        when(userRepository.findByEmail("user@test.com")).thenReturn(Optional.of(usuario));
+
+        UserDetails primera = userService.userDetailsService().loadUserByUsername("user@test.com");
+        UserDetails segunda = userService.userDetailsService().loadUserByUsername("user@test.com");
+
+        assertSame(primera, segunda);
+        verify(userRepository, times(1)).findByEmail("user@test.com");
+    }
+
+    @Test
+    void evictUserDetails_obligaAVolverAConsultarLaBD() {
+        Usuario usuario = new Usuario();
+        usuario.setEmail("user@test.com");
+        when(userRepository.findByEmail("user@test.com")).thenReturn(Optional.of(usuario));
+
+        userService.userDetailsService().loadUserByUsername("user@test.com");
+        userService.evictUserDetails("user@test.com");
+        userService.userDetailsService().loadUserByUsername("user@test.com");
+
+        verify(userRepository, times(2)).findByEmail("user@test.com");
+    }
+
+    @Test
+    void loadUserByUsername_noExiste_lanzaUsernameNotFoundException() {
+        when(userRepository.findByEmail("nadie@test.com")).thenReturn(Optional.empty());
+
+        assertThrows(UsernameNotFoundException.class,
+                () -> userService.userDetailsService().loadUserByUsername("nadie@test.com"));
+    }
+}
@@ -0,0 +1,74 @@
+package com.dwes.security.service.user.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.dwes.security.entities.Role;
+import com.dwes.security.entities.Usuario;
+import com.dwes.security.repository.UserRepository;
+import com.dwes.security.service.UserService;
+
+@ActiveProfiles("test")
+@SpringBootTest
+class UsuarioCacheListenerTest {
+
+    @Autowired
+    UserRepository userRepository;
+
+    @Autowired
+    UserService userService;
+
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    void setUp() {
+        userRepository.deleteAll();
+        Usuario usuario = new Usuario();
+        usuario.setFirstName("Test");
+        usuario.setLastName("Roles");
+        usuario.setEmail("roles@test.com");
+        usuario.setPassword("test");
+        usuario.setRoles(new HashSet<>(Set.of(Role.ROLE_USER)));
+        userRepository.save(usuario);
+    }
+
+    @Test
+    void cambioSoloDeRoles_desalojaLaEntradaCacheada() {
+        UserDetails antes = userService.userDetailsService().loadUserByUsername("roles@test.com");
+
+        transactionTemplate.executeWithoutResult(status ->
+                userRepository.findByEmail("roles@test.com").orElseThrow().getRoles().add(Role.ROLE_ADMIN));
+
+        UserDetails despues = userService.userDetailsService().loadUserByUsername("roles@test.com");
+        assertThat(despues).isNotSameAs(antes);
+        assertThat(despues.getAuthorities()).extracting(GrantedAuthority::getAuthority)
+                .containsExactlyInAnyOrder("ROLE_USER", "ROLE_ADMIN");
+    }
+
+    @Test
+    void cambioDeEmail_desalojaTambienElEmailAnterior() {
+        userService.userDetailsService().loadUserByUsername("roles@test.com");
+
+        transactionTemplate.executeWithoutResult(status ->
+                userRepository.findByEmail("roles@test.com").orElseThrow().setEmail("nuevo@test.com"));
+
+        assertThrows(UsernameNotFoundException.class,
+                () -> userService.userDetailsService().loadUserByUsername("roles@test.com"));
+        assertThat(userService.userDetailsService().loadUserByUsername("nuevo@test.com").getUsername())
+                .isEqualTo("nuevo@test.com");
+    }
+}
@@ -0,0 +1,31 @@
+package com.dwes.security.util;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+
+class BloomFilterTest {
+
+    @Test
+    void mightContain_sinFalsosNegativosYFalsosPositivosAcotados() {
+        BloomFilter bloom = new BloomFilter(10_000, 0.01);
+        String[] insertados = new String[10_000];
+        for (int i = 0; i < insertados.length; i++) {
+            insertados[i] = UUID.randomUUID().toString();
+            bloom.put(insertados[i]);
+        }
+
+        for (String valor : insertados) {
+            assertTrue(bloom.mightContain(valor));
+        }
+        int falsosPositivos = 0;
+        for (int i = 0; i < 10_000; i++) {
+            if (bloom.mightContain(UUID.randomUUID().toString())) {
+                falsosPositivos++;
+            }
+        }
+        assertTrue(falsosPositivos < 300, "falsos positivos: " + falsosPositivos);
+    }
+}
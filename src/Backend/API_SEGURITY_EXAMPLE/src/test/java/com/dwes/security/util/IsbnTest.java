@@ -0,0 +1,25 @@
+package com.dwes.security.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.Test;
+
+class IsbnTest {
+
+    @Test
+    void normalizar_isbn10EIsbn13DelMismoLibroDanLaMismaClave() {
+        assertEquals("9780306406157", Isbn.normalizar("0306406152"));
+        assertEquals("9780306406157", Isbn.normalizar("0-306-40615-2"));
+        assertEquals("9780306406157", Isbn.normalizar("978-0-306-40615-7"));
+        assertEquals("9780804429573", Isbn.normalizar("080442957x"));
+    }
+
+    @Test
+    void normalizar_formatoNoValido_lanzaIllegalArgumentException() {
+        assertThrows(IllegalArgumentException.class, () -> Isbn.normalizar("123"));
+        assertThrows(IllegalArgumentException.class, () -> Isbn.normalizar("97803064061X7"));
+        assertNull(Isbn.normalizarONull(null));
+    }
+}